@@ -0,0 +1,16 @@
+package com.jagt1806.mangareader.cache;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public record CachedValue<T>(T value, long createdAt, long expiresAt, long staleAt, long computeMillis) {
+    public boolean isUsable(long now) {
+        return now < staleAt;
+    }
+
+    // Expiración temprana probabilística (XFetch): cuanto más cara es la carga, antes se refresca
+    public boolean needsRefresh(long now, double beta) {
+        if(now >= expiresAt) return true;
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return now - computeMillis * beta * Math.log(random) >= expiresAt;
+    }
+}
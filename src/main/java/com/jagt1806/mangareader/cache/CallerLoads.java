@@ -0,0 +1,51 @@
+package com.jagt1806.mangareader.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.jagt1806.mangareader.client.StaleResponses;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Carga de una AsyncCache en el hilo que pide el valor. Se reserva la clave con un futuro vacío
+ * (putIfAbsent solo toma el cerrojo del mapa un instante) y la llamada remota se hace fuera de él,
+ * así una petición lenta no bloquea otras claves del mismo segmento. Al ejecutarse en el hilo del
+ * llamante se conservan su carril de peticiones y el idioma de decodificación. Los que piden la
+ * misma clave mientras tanto esperan el mismo futuro; si falla, Caffeine retira la entrada. Si la
+ * carga se sirvió con un valor de respaldo de MangaDex, los que esperan lo reciben pero la entrada se
+ * retira, para no servirla como fresca durante todo el TTL.
+ */
+public final class CallerLoads {
+    private CallerLoads() {
+    }
+
+    public static <K, V> V get(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        CompletableFuture<V> existing = cache.getIfPresent(key);
+        if(existing != null) return await(existing);
+
+        CompletableFuture<V> created = new CompletableFuture<>();
+        existing = cache.asMap().putIfAbsent(key, created);
+        if(existing != null) return await(existing);
+
+        try {
+            StaleResponses.Tracked<V> result = StaleResponses.track(() -> loader.apply(key));
+            created.complete(result.value());
+            if(result.stale()) cache.asMap().remove(key, created);
+            return result.value();
+        } catch (Throwable e) {
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if(e.getCause() instanceof RuntimeException cause) throw cause;
+            if(e.getCause() instanceof Error cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.jagt1806.mangareader.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Borrado diferido de ficheros que acaban de salir de una caché en disco. Entre que una petición
+ * obtiene la ruta y la abre (o Tomcat la envía con sendfile) puede pasar un instante; si el fichero
+ * desapareciera ahí, el cliente recibiría un error con las cabeceras ya enviadas. Los ficheros
+ * expulsados esperan un periodo de gracia y solo se borran si para entonces nadie los ha vuelto a
+ * escribir en la misma ruta. Una vez abierto, el descriptor sigue siendo legible aunque se borre.
+ * Tras cada borrado se eliminan los directorios que hayan quedado vacíos hasta la raíz de la caché,
+ * por eso quien escribe en la caché debe mover sus ficheros con moveInto.
+ */
+@Slf4j
+public class DeferredDeletes {
+    private final Path root;
+    private final long graceNanos;
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock sweeping = new ReentrantLock();
+
+    private record Pending(Path file, long dueAt) {
+    }
+
+    public DeferredDeletes(Path root, Duration grace) {
+        this.root = root;
+        this.graceNanos = grace.toNanos();
+    }
+
+    public void schedule(Path file) {
+        queue.add(new Pending(file, System.nanoTime() + graceNanos));
+    }
+
+    /**
+     * Mueve un fichero temporal a su ruta final creando antes los directorios. Un barrido puede borrar
+     * el directorio recién creado si lo vio vacío justo antes del move; en ese caso se crea otra vez y
+     * se reintenta una sola vez.
+     */
+    public static void moveInto(Path temp, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (NoSuchFileException e) {
+            if(!Files.exists(temp)) throw e;
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+    }
+
+    /**
+     * Borra los ficheros cuyo periodo de gracia ha vencido, salvo los que vuelven a estar en uso.
+     * La cola está ordenada por vencimiento porque la gracia es la misma para todos.
+     */
+    public void sweep(Predicate<Path> inUse) {
+        // Un único barrido a la vez: así peek y poll siempre ven el mismo elemento
+        if(!sweeping.tryLock()) return;
+        try {
+            long now = System.nanoTime();
+            Pending pending;
+            while((pending = queue.peek()) != null && now - pending.dueAt() >= 0) {
+                queue.poll();
+                if(inUse.test(pending.file())) continue;
+                delete(pending.file());
+            }
+        } finally {
+            sweeping.unlock();
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+            for(Path dir = file.getParent(); dir != null && dir.startsWith(root) && !dir.equals(root); dir = dir.getParent()) {
+                if(!isEmpty(dir)) break;
+                Files.deleteIfExists(dir);
+            }
+        } catch (DirectoryNotEmptyException e) {
+            // Alguien escribió en el directorio después de comprobar que estaba vacío: se queda
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar {}", file, e);
+        }
+    }
+
+    private boolean isEmpty(Path dir) throws IOException {
+        if(!Files.isDirectory(dir)) return false;
+        try (Stream<Path> children = Files.list(dir)) {
+            return children.findAny().isEmpty();
+        }
+    }
+}
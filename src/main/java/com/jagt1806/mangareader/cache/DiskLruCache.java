@@ -0,0 +1,139 @@
+package com.jagt1806.mangareader.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+@Slf4j
+public class DiskLruCache {
+    private static final String TEMP_PREFIX = "tmp-";
+    private static final Duration DELETE_GRACE = Duration.ofMinutes(1);
+
+    private final Path root;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(256, 0.75f, true);
+    // ReentrantLock en lugar de synchronized: el borrado de ficheros dentro del lock no fija hilos virtuales
+    private final ReentrantLock lock = new ReentrantLock();
+    private final DeferredDeletes deferredDeletes;
+    private long totalBytes;
+
+    public DiskLruCache(Path root, long maxBytes) {
+        this.root = root.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+        this.deferredDeletes = new DeferredDeletes(this.root, DELETE_GRACE);
+        load();
+    }
+
+    public Optional<Path> get(String key) {
+        lock.lock();
+        try {
+            if(entries.get(key) == null) return Optional.empty();
+
+            Path file = resolve(key);
+            if(Files.isRegularFile(file)) return Optional.of(file);
+
+            totalBytes -= entries.remove(key);
+            return Optional.empty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path put(String key, Consumer<Path> writer) {
+        Path target = resolve(key);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(root, TEMP_PREFIX, ".part");
+            writer.accept(temp);
+            DeferredDeletes.moveInto(temp, target);
+            record(key, Files.size(target));
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    public long size() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(String key, long size) {
+        lock.lock();
+        try {
+            Long previous = entries.put(key, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+            evict(key);
+            // Si la clave se volvió a escribir durante la gracia, el fichero nuevo no se toca
+            deferredDeletes.sweep(file -> entries.containsKey(root.relativize(file).toString().replace('\\', '/')));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evict(String keep) {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while(totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            if(eldest.getKey().equals(keep)) continue;
+
+            iterator.remove();
+            totalBytes -= eldest.getValue();
+            // Puede haber una respuesta a punto de abrir el fichero: se borra tras la gracia
+            deferredDeletes.schedule(resolve(eldest.getKey()));
+        }
+    }
+
+    private void load() {
+        try {
+            Files.createDirectories(root);
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(Files::isRegularFile)
+                        .sorted(Comparator.comparingLong(this::lastModified))
+                        .forEach(file -> {
+                            if(file.getFileName().toString().startsWith(TEMP_PREFIX)) deleteQuietly(file);
+                            else record(root.relativize(file).toString().replace('\\', '/'), file.toFile().length());
+                        });
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if(!file.startsWith(root)) throw new IllegalArgumentException(key);
+        return file;
+    }
+
+    private long lastModified(Path file) {
+        return file.toFile().lastModified();
+    }
+
+    private void deleteQuietly(Path file) {
+        if(file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.jagt1806.mangareader.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagt1806.mangareader.client.StaleResponses;
+import com.jagt1806.mangareader.model.CacheEntry;
+import com.jagt1806.mangareader.repository.CacheEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+@Slf4j
+public class TieredCache<T> {
+    private final String name;
+    private final Class<T> type;
+    private final long ttlMillis;
+    private final long staleMillis;
+    private final double beta;
+    private final Cache<String, CachedValue<T>> local;
+    private final CacheEntryRepository cacheEntryRepository;
+    private final ObjectMapper objectMapper;
+    private final Executor refreshExecutor;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    public TieredCache(String name, Class<T> type, Duration ttl, Duration stale, long maximumSize, double beta,
+                       CacheEntryRepository cacheEntryRepository, ObjectMapper objectMapper, Executor refreshExecutor) {
+        this.name = name;
+        this.type = type;
+        this.ttlMillis = ttl.toMillis();
+        this.staleMillis = stale.toMillis();
+        this.beta = beta;
+        this.cacheEntryRepository = cacheEntryRepository;
+        this.objectMapper = objectMapper;
+        this.refreshExecutor = refreshExecutor;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl.plus(stale))
+                .build();
+    }
+
+    public T get(String key, Supplier<T> loader) {
+        long now = System.currentTimeMillis();
+        CachedValue<T> cached = local.getIfPresent(key);
+
+        if(cached == null || !cached.isUsable(now)) {
+            cached = readRemote(key).filter(remote -> remote.isUsable(now)).orElse(null);
+            if(cached == null) return load(key, loader).value();
+            local.put(key, cached);
+        }
+
+        if(cached.needsRefresh(now, beta)) refreshAsync(key, loader);
+        return cached.value();
+    }
+
+    public void invalidate(String key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Si el cálculo se sirvió con algún valor de respaldo de MangaDex (circuito abierto o error) se
+     * devuelve sin guardarlo: almacenado tendría el TTL completo de un valor fresco, en las dos capas,
+     * y seguiría sirviéndose después de que MangaDex se recupere.
+     */
+    private CachedValue<T> load(String key, Supplier<T> loader) {
+        long start = System.currentTimeMillis();
+        StaleResponses.Tracked<T> result = StaleResponses.track(loader);
+        long now = System.currentTimeMillis();
+
+        CachedValue<T> cached = new CachedValue<>(result.value(), now, now + ttlMillis, now + ttlMillis + staleMillis, now - start);
+        if(result.stale()) return cached;
+
+        local.put(key, cached);
+        writeRemoteAsync(key, cached);
+        return cached;
+    }
+
+    private void refreshAsync(String key, Supplier<T> loader) {
+        if(!refreshing.add(key)) return;
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    long now = System.currentTimeMillis();
+                    Optional<CachedValue<T>> remote = readRemote(key)
+                            .filter(entry -> entry.isUsable(now) && !entry.needsRefresh(now, beta));
+                    if(remote.isPresent()) local.put(key, remote.get());
+                    else load(key, loader);
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo refrescar la entrada {} de la caché {}", key, name, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    private Optional<CachedValue<T>> readRemote(String key) {
+        try {
+            return cacheEntryRepository.findById(entryId(key)).map(this::toCachedValue);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo leer la caché compartida {}", name, e);
+            return Optional.empty();
+        }
+    }
+
+    private void writeRemoteAsync(String key, CachedValue<T> cached) {
+        try {
+            refreshExecutor.execute(() -> writeRemote(key, cached));
+        } catch (RejectedExecutionException e) {
+            log.debug("Escritura en la caché compartida {} descartada", name);
+        }
+    }
+
+    private void writeRemote(String key, CachedValue<T> cached) {
+        try {
+            cacheEntryRepository.save(new CacheEntry(
+                    entryId(key),
+                    name,
+                    objectMapper.writeValueAsString(cached.value()),
+                    Instant.ofEpochMilli(cached.createdAt()),
+                    Instant.ofEpochMilli(cached.expiresAt()),
+                    Instant.ofEpochMilli(cached.staleAt()),
+                    cached.computeMillis()
+            ));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("No se pudo escribir en la caché compartida {}", name, e);
+        }
+    }
+
+    private CachedValue<T> toCachedValue(CacheEntry entry) {
+        try {
+            return new CachedValue<>(
+                    objectMapper.readValue(entry.getPayload(), type),
+                    entry.getCreatedAt().toEpochMilli(),
+                    entry.getExpiresAt().toEpochMilli(),
+                    entry.getStaleAt().toEpochMilli(),
+                    entry.getComputeMillis()
+            );
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String entryId(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return name + ":" + HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.jagt1806.mangareader.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagt1806.mangareader.client.RequestLane;
+import com.jagt1806.mangareader.repository.CacheEntryRepository;
+import com.jagt1806.mangareader.util.ThreadFactoryUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@RequiredArgsConstructor
+public class TieredCacheManager {
+    private final CacheEntryRepository cacheEntryRepository;
+    private final ObjectMapper objectMapper;
+    private final ThreadFactoryUtil threadFactoryUtil;
+
+    @Value("${cache.early-expiry.beta:1.0}")
+    private double beta;
+    @Value("${cache.refresh.threads:4}")
+    private int refreshThreads;
+    @Value("${cache.refresh.queue:256}")
+    private int refreshQueue;
+
+    private ThreadPoolExecutor refreshExecutor;
+
+    @PostConstruct
+    public void init() {
+        refreshExecutor = new ThreadPoolExecutor(refreshThreads, refreshThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(refreshQueue), threadFactoryUtil.create("cache-refresh-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdown();
+    }
+
+    public <T> TieredCache<T> create(String name, Class<T> type, Duration ttl, Duration stale, long maximumSize) {
+        return new TieredCache<>(name, type, ttl, stale, maximumSize, beta, cacheEntryRepository, objectMapper,
+                command -> refreshExecutor.execute(() -> RequestLane.BACKGROUND.run(command)));
+    }
+
+    @Scheduled(cron = "0 */15 * * * *")
+    @Transactional
+    public void cleanupStaleEntries() {
+        cacheEntryRepository.deleteByStaleAtBefore(Instant.now());
+    }
+}
@@ -0,0 +1,139 @@
+package com.jagt1806.mangareader.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Circuit breaker por endpoint con ventana deslizante de las últimas llamadas. Al superar el
+ * porcentaje de fallos se abre durante openDuration y después deja pasar una única llamada de prueba.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final MeterRegistry registry;
+    private final String method;
+    private final boolean[] window;
+    private final int minimumCalls;
+    private final int failureRate;
+    private final long openNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private State state = State.CLOSED;
+    private int index;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(MeterRegistry registry, String method, int windowSize, int minimumCalls, int failureRate, Duration openDuration) {
+        this.registry = registry;
+        this.method = method;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRate = failureRate;
+        this.openNanos = openDuration.toNanos();
+        Gauge.builder("mangadex.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .tag("method", method)
+                .description("0 = cerrado, 1 = abierto, 2 = semiabierto")
+                .register(registry);
+    }
+
+    public boolean tryAcquire() {
+        lock.lock();
+        try {
+            if(state == State.OPEN) {
+                if(System.nanoTime() - openedAt < openNanos) return false;
+                transition(State.HALF_OPEN);
+            }
+            if(state == State.HALF_OPEN) {
+                if(trialInFlight) return false;
+                trialInFlight = true;
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            if(state == State.HALF_OPEN) close();
+            else record(false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onFailure() {
+        lock.lock();
+        try {
+            if(state == State.HALF_OPEN) {
+                open();
+                return;
+            }
+            record(true);
+            if(calls >= minimumCalls && failures * 100 >= failureRate * calls) open();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * La llamada no llegó a MangaDex (p. ej. sin cupo en el rate limiter): no cuenta como resultado.
+     */
+    public void onIgnored() {
+        lock.lock();
+        try {
+            trialInFlight = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public State getState() {
+        lock.lock();
+        try {
+            return state;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void record(boolean failure) {
+        if(calls == window.length) {
+            if(window[index]) failures--;
+        } else {
+            calls++;
+        }
+        window[index] = failure;
+        if(failure) failures++;
+        index = (index + 1) % window.length;
+    }
+
+    private void open() {
+        openedAt = System.nanoTime();
+        trialInFlight = false;
+        transition(State.OPEN);
+    }
+
+    private void close() {
+        index = 0;
+        calls = 0;
+        failures = 0;
+        trialInFlight = false;
+        transition(State.CLOSED);
+    }
+
+    private void transition(State next) {
+        state = next;
+        registry.counter("mangadex.circuit.transitions", "method", method, "state", next.name().toLowerCase()).increment();
+    }
+}
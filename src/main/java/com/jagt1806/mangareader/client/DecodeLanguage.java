@@ -0,0 +1,30 @@
+package com.jagt1806.mangareader.client;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Idiomas de descripción que necesita la llamada en curso. Con él activo, MangaDexDecoder descarta
+ * el resto de descripciones y relaciones; sin él, la respuesta se decodifica completa.
+ */
+public final class DecodeLanguage {
+    private static final ThreadLocal<List<String>> CURRENT = new ThreadLocal<>();
+
+    private DecodeLanguage() {
+    }
+
+    public static List<String> current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T with(List<String> languages, Supplier<T> call) {
+        List<String> previous = CURRENT.get();
+        CURRENT.set(languages);
+        try {
+            return call.get();
+        } finally {
+            if(previous == null) CURRENT.remove();
+            else CURRENT.set(previous);
+        }
+    }
+}
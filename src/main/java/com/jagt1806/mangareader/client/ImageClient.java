@@ -0,0 +1,42 @@
+package com.jagt1806.mangareader.client;
+
+import com.jagt1806.mangareader.exceptions.ImageFetchException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Component
+public class ImageClient {
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .build();
+
+    public void download(String url, Path target) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofSeconds(30))
+                .header("User-Agent", "manga-reader")
+                .GET()
+                .build();
+
+        try {
+            HttpResponse<Path> response = httpClient.send(request, HttpResponse.BodyHandlers.ofFile(target));
+            if(response.statusCode() != 200) {
+                Files.deleteIfExists(target);
+                throw new ImageFetchException(url);
+            }
+        } catch (IOException e) {
+            throw new ImageFetchException(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImageFetchException(url);
+        }
+    }
+}
@@ -8,7 +8,8 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import java.util.List;
 
-@FeignClient(name = "manga-service", url = "https://api.mangadex.org")
+@FeignClient(name = "manga-service", url = "${mangadex.api.url:https://api.mangadex.org}", primary = false, qualifiers = "mangaDexClient",
+        configuration = MangaClientConfig.class)
 public interface MangaClient {
     @GetMapping("/manga")
     MangaList getSearchManga(
@@ -20,6 +21,24 @@ public interface MangaClient {
             @RequestParam(value = "availableTranslatedLanguage[]", defaultValue = "es") List<String> language
     );
 
+    @GetMapping("/manga")
+    MangaList getMangaUpdates(
+            @RequestParam("includes[]") String includes,
+            @RequestParam(value = "updatedAtSince", required = false) String updatedAtSince,
+            @RequestParam(value = "order[updatedAt]", defaultValue = "asc") String order,
+            @RequestParam("contentRating[]") List<String> contentRating,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    );
+
+    @GetMapping("/manga")
+    MangaList getMangaByIds(
+            @RequestParam("ids[]") List<String> ids,
+            @RequestParam("includes[]") String includes,
+            @RequestParam(value = "limit", defaultValue = "100") int limit,
+            @RequestParam("contentRating[]") List<String> contentRating
+    );
+
     @GetMapping("/manga/{id}")
     Manga getMangaId(
             @PathVariable("id") String id,
@@ -38,6 +57,23 @@ public interface MangaClient {
             @RequestParam(value = "translatedLanguage[]", defaultValue = "es") List<String> language
     );
 
+    @GetMapping("/chapter/{id}")
+    ChapterInfo getChapterId(
+            @PathVariable("id") String id
+    );
+
+    @GetMapping("/chapter")
+    FeedList getChapterUpdates(
+            @RequestParam(value = "manga", required = false) String manga,
+            @RequestParam(value = "publishAtSince", required = false) String publishAtSince,
+            @RequestParam(value = "order[publishAt]", defaultValue = "asc") String order,
+            @RequestParam("contentRating[]") List<String> contentRating,
+            @RequestParam(value = "includeFutureUpdates", defaultValue = "0") Byte includeFutureUpdates,
+            @RequestParam("translatedLanguage[]") List<String> language,
+            @RequestParam(value = "offset", defaultValue = "0") int offset,
+            @RequestParam(value = "limit", defaultValue = "100") int limit
+    );
+
     @GetMapping("/at-home/server/{chapterId}")
     Chapter getAtHomeServerChapterId(
             @PathVariable("chapterId") String chapterId
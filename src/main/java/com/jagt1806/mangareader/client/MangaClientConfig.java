@@ -0,0 +1,16 @@
+package com.jagt1806.mangareader.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.codec.Decoder;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Configuración propia del cliente de MangaDex. No lleva @Configuration para que el decoder no se
+ * aplique al resto de clientes Feign.
+ */
+public class MangaClientConfig {
+    @Bean
+    public Decoder mangaDexDecoder(ObjectMapper objectMapper) {
+        return new MangaDexDecoder(objectMapper);
+    }
+}
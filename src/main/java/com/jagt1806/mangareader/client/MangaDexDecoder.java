@@ -0,0 +1,230 @@
+package com.jagt1806.mangareader.client;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagt1806.mangareader.dto.api.Manga;
+import com.jagt1806.mangareader.dto.api.MangaData;
+import com.jagt1806.mangareader.dto.api.MangaList;
+import com.jagt1806.mangareader.dto.api.attributes.CoverAttributes;
+import com.jagt1806.mangareader.dto.api.attributes.MangaAttributes;
+import com.jagt1806.mangareader.dto.api.attributes.MangaRelationship;
+import com.jagt1806.mangareader.dto.api.attributes.MangaTag;
+import com.jagt1806.mangareader.dto.api.attributes.TagAttributes;
+import feign.Response;
+import feign.codec.Decoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Decodifica MangaList y Manga con el parser en streaming de Jackson cuando hay un DecodeLanguage
+ * activo: solo se materializan los títulos (principal y alternativos, que alimentan el autocompletado),
+ * las descripciones de esos idiomas y la relación cover_art; el resto de subárboles se salta sin crear
+ * objetos. Los demás tipos usan databinding.
+ */
+public class MangaDexDecoder implements Decoder {
+    private static final String COVER_ART = "cover_art";
+
+    private final ObjectMapper objectMapper;
+
+    public MangaDexDecoder(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public Object decode(Response response, Type type) throws IOException {
+        if(response.body() == null) return null;
+
+        List<String> languages = DecodeLanguage.current();
+        try (InputStream body = response.body().asInputStream()) {
+            if(languages == null || (type != MangaList.class && type != Manga.class)) {
+                return objectMapper.readValue(body, objectMapper.constructType(type));
+            }
+
+            try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+                parser.nextToken();
+                return type == MangaList.class ? readMangaList(parser, languages) : readManga(parser, languages);
+            }
+        }
+    }
+
+    private MangaList readMangaList(JsonParser parser, List<String> languages) throws IOException {
+        MangaList list = new MangaList(new ArrayList<>(), 0, 0, 0);
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch(field) {
+                case "data" -> {
+                    if(token != JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while(parser.nextToken() == JsonToken.START_OBJECT) list.getData().add(readMangaData(parser, languages));
+                }
+                case "offset" -> list.setOffset(parser.getValueAsInt());
+                case "limit" -> list.setLimit(parser.getValueAsInt());
+                case "total" -> list.setTotal(parser.getValueAsLong());
+                default -> parser.skipChildren();
+            }
+        }
+        return list;
+    }
+
+    private Manga readManga(JsonParser parser, List<String> languages) throws IOException {
+        Manga manga = new Manga();
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if("data".equals(field) && token == JsonToken.START_OBJECT) manga.setData(readMangaData(parser, languages));
+            else parser.skipChildren();
+        }
+        return manga;
+    }
+
+    private MangaData readMangaData(JsonParser parser, List<String> languages) throws IOException {
+        MangaData data = new MangaData(null, new MangaAttributes(), new ArrayList<>());
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch(field) {
+                case "id" -> data.setId(parser.getValueAsString());
+                case "attributes" -> {
+                    if(token == JsonToken.START_OBJECT) readAttributes(parser, data.getAttributes(), languages);
+                    else parser.skipChildren();
+                }
+                case "relationships" -> {
+                    if(token != JsonToken.START_ARRAY) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    while(parser.nextToken() == JsonToken.START_OBJECT) {
+                        MangaRelationship relationship = readRelationship(parser);
+                        if(COVER_ART.equals(relationship.getType())) data.getRelationships().add(relationship);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return data;
+    }
+
+    private void readAttributes(JsonParser parser, MangaAttributes attributes, List<String> languages) throws IOException {
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch(field) {
+                case "title" -> attributes.setTitle(readStringMap(parser, key -> true));
+                case "altTitles" -> attributes.setAltTitles(readAltTitles(parser));
+                case "description" -> attributes.setDescription(readStringMap(parser, languages::contains));
+                case "contentRating" -> attributes.setContentRating(parser.getValueAsString());
+                case "status" -> attributes.setStatus(parser.getValueAsString());
+                case "tags" -> attributes.setTags(readTags(parser));
+                case "updatedAt" -> attributes.setUpdatedAt(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private List<Map<String, String>> readAltTitles(JsonParser parser) throws IOException {
+        List<Map<String, String>> altTitles = new ArrayList<>();
+        if(parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return altTitles;
+        }
+
+        while(parser.nextToken() != JsonToken.END_ARRAY) {
+            Map<String, String> alt = readStringMap(parser, key -> true);
+            if(alt != null && !alt.isEmpty()) altTitles.add(alt);
+        }
+        return altTitles;
+    }
+
+    private List<MangaTag> readTags(JsonParser parser) throws IOException {
+        List<MangaTag> tags = new ArrayList<>();
+        if(parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return tags;
+        }
+
+        while(parser.nextToken() == JsonToken.START_OBJECT) {
+            MangaTag tag = new MangaTag();
+            while(parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if("id".equals(field)) {
+                    tag.setId(parser.getValueAsString());
+                } else if("attributes".equals(field) && token == JsonToken.START_OBJECT) {
+                    tag.setAttributes(readTagAttributes(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            tags.add(tag);
+        }
+        return tags;
+    }
+
+    private TagAttributes readTagAttributes(JsonParser parser) throws IOException {
+        TagAttributes attributes = new TagAttributes();
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch(field) {
+                case "name" -> attributes.setName(readStringMap(parser, "en"::equals));
+                case "group" -> attributes.setGroup(parser.getValueAsString());
+                default -> parser.skipChildren();
+            }
+        }
+        return attributes;
+    }
+
+    private MangaRelationship readRelationship(JsonParser parser) throws IOException {
+        MangaRelationship relationship = new MangaRelationship();
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken token = parser.nextToken();
+            switch(field) {
+                case "id" -> relationship.setId(parser.getValueAsString());
+                case "type" -> relationship.setType(parser.getValueAsString());
+                case "attributes" -> {
+                    if(token != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        break;
+                    }
+                    Map<String, String> attributes = readStringMap(parser, "fileName"::equals);
+                    if(attributes.containsKey("fileName")) {
+                        CoverAttributes cover = new CoverAttributes();
+                        cover.setFileName(attributes.get("fileName"));
+                        relationship.setAttributes(cover);
+                    }
+                }
+                default -> parser.skipChildren();
+            }
+        }
+        return relationship;
+    }
+
+    private Map<String, String> readStringMap(JsonParser parser, Predicate<String> keep) throws IOException {
+        // MangaDex serializa los mapas vacíos como [] en algunos endpoints
+        if(parser.currentToken() != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return parser.currentToken() == JsonToken.VALUE_NULL ? null : new HashMap<>();
+        }
+
+        Map<String, String> values = new HashMap<>();
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            parser.nextToken();
+            if(keep.test(key) && parser.currentToken().isScalarValue()) values.put(key, parser.getValueAsString());
+            else parser.skipChildren();
+        }
+        return values;
+    }
+}
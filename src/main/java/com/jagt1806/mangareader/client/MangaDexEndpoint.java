@@ -0,0 +1,127 @@
+package com.jagt1806.mangareader.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagt1806.mangareader.exceptions.CircuitOpenException;
+import com.jagt1806.mangareader.exceptions.RateLimitExceededException;
+import feign.FeignException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Todo lo que envuelve a un método de MangaClient: coalescencia, rate limit, reintentos, circuit
+ * breaker y último valor bueno conocido para servirlo (marcado como stale) cuando MangaDex falla.
+ */
+public class MangaDexEndpoint<V> {
+    private static final Duration DEFAULT_PAUSE = Duration.ofSeconds(1);
+
+    private final SingleFlight<List<Object>, Result<V>> flight;
+    private final CircuitBreaker breaker;
+    private final Cache<List<Object>, V> lastGood;
+    private final Counter stale;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+
+    private record Result<V>(V value, boolean stale) {
+    }
+
+    public MangaDexEndpoint(String method, MeterRegistry registry, RateLimiter rateLimiter, RetryPolicy retryPolicy,
+                            CircuitBreaker breaker, Duration staleTtl, long staleSize) {
+        this.flight = new SingleFlight<>(registry, method);
+        this.breaker = breaker;
+        this.lastGood = Caffeine.newBuilder()
+                .maximumSize(staleSize)
+                .expireAfterWrite(staleTtl)
+                .build();
+        this.stale = Counter.builder("mangadex.client.stale").tag("method", method).register(registry);
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+    }
+
+    public V execute(List<Object> arguments, Supplier<V> call) {
+        // El decoder recorta la respuesta según el idioma, así que forma parte de la clave
+        List<Object> key = new ArrayList<>(arguments);
+        key.add(DecodeLanguage.current());
+
+        Result<V> result = flight.execute(key, () -> guarded(key, call));
+        if(result.stale()) StaleResponses.mark();
+        return result.value();
+    }
+
+    private Result<V> guarded(List<Object> key, Supplier<V> call) {
+        if(!breaker.tryAcquire()) return fallback(key, new CircuitOpenException("circuit.open.error"));
+        retryPolicy.deposit();
+
+        int attempt = 0;
+        while(true) {
+            try {
+                V value = limited(call);
+                breaker.onSuccess();
+                lastGood.put(key, value);
+                return new Result<>(value, false);
+            } catch (RateLimitExceededException e) {
+                breaker.onIgnored();
+                return fallback(key, e);
+            } catch (FeignException e) {
+                if(!isFailure(e)) {
+                    breaker.onSuccess();
+                    throw e;
+                }
+                if(isRetryable(e) && retryPolicy.tryRetry(attempt)) {
+                    retryPolicy.backoff(attempt++);
+                    continue;
+                }
+                breaker.onFailure();
+                return fallback(key, e);
+            } catch (RuntimeException e) {
+                breaker.onIgnored();
+                throw e;
+            }
+        }
+    }
+
+    private V limited(Supplier<V> call) {
+        rateLimiter.acquire(RequestLane.current());
+        try {
+            return call.get();
+        } catch (FeignException.TooManyRequests e) {
+            rateLimiter.pause(retryAfter(e));
+            throw e;
+        }
+    }
+
+    private Result<V> fallback(List<Object> key, RuntimeException e) {
+        V value = lastGood.getIfPresent(key);
+        if(value == null) throw e;
+        stale.increment();
+        return new Result<>(value, true);
+    }
+
+    private boolean isFailure(FeignException e) {
+        return e.status() < 0 || e.status() >= 500 || e.status() == 429;
+    }
+
+    private boolean isRetryable(FeignException e) {
+        return e.status() < 0 || e.status() >= 500;
+    }
+
+    private Duration retryAfter(FeignException e) {
+        Collection<String> retryAfter = e.responseHeaders().get("retry-after");
+        if(retryAfter != null) {
+            for(String value : retryAfter) {
+                try {
+                    return Duration.ofSeconds(Long.parseLong(value.trim()));
+                } catch (NumberFormatException ignored) {
+                    // Retry-After también puede ser una fecha HTTP; se usa la pausa por defecto
+                }
+            }
+        }
+        return DEFAULT_PAUSE;
+    }
+}
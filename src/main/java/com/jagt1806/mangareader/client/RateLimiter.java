@@ -0,0 +1,153 @@
+package com.jagt1806.mangareader.client;
+
+import com.jagt1806.mangareader.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Token bucket global para las llamadas salientes a MangaDex. El carril BACKGROUND solo consume
+ * cuando no hay peticiones interactivas esperando y deja siempre una reserva de tokens para ellas.
+ */
+@Component
+@RequiredArgsConstructor
+public class RateLimiter {
+    private final MeterRegistry meterRegistry;
+
+    @Value("${mangadex.rate-limit.permits-per-second:5}")
+    private double permitsPerSecond;
+    @Value("${mangadex.rate-limit.burst:5}")
+    private int burst;
+    @Value("${mangadex.rate-limit.reserve:1}")
+    private int reserve;
+    @Value("${mangadex.rate-limit.interactive-timeout:2s}")
+    private Duration interactiveTimeout;
+    @Value("${mangadex.rate-limit.background-timeout:30s}")
+    private Duration backgroundTimeout;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Map<RequestLane, Timer> waits = new EnumMap<>(RequestLane.class);
+    private final Map<RequestLane, Counter> rejections = new EnumMap<>(RequestLane.class);
+    private final Map<RequestLane, Integer> waiting = new EnumMap<>(RequestLane.class);
+
+    private double tokens;
+    private long lastRefill;
+    private long pausedUntil;
+
+    @PostConstruct
+    public void init() {
+        tokens = burst;
+        lastRefill = System.nanoTime();
+        pausedUntil = lastRefill;
+
+        for(RequestLane lane : RequestLane.values()) {
+            String tag = lane.name().toLowerCase();
+            waiting.put(lane, 0);
+            waits.put(lane, Timer.builder("mangadex.ratelimit.wait").tag("lane", tag).register(meterRegistry));
+            rejections.put(lane, Counter.builder("mangadex.ratelimit.rejected").tag("lane", tag).register(meterRegistry));
+            Gauge.builder("mangadex.ratelimit.waiting", this, limiter -> limiter.waitingIn(lane)).tag("lane", tag).register(meterRegistry);
+        }
+        Gauge.builder("mangadex.ratelimit.tokens", this, RateLimiter::availableTokens).register(meterRegistry);
+    }
+
+    public void acquire(RequestLane lane) {
+        long start = System.nanoTime();
+        long deadline = start + (lane == RequestLane.INTERACTIVE ? interactiveTimeout : backgroundTimeout).toNanos();
+
+        lock.lock();
+        waiting.merge(lane, 1, Integer::sum);
+        try {
+            while(true) {
+                long now = System.nanoTime();
+                refill(now);
+                if(canTake(lane, now)) {
+                    tokens -= 1;
+                    break;
+                }
+
+                long remaining = deadline - now;
+                if(remaining <= 0) {
+                    rejections.get(lane).increment();
+                    throw new RateLimitExceededException("rate.limit.error");
+                }
+                available.awaitNanos(Math.min(remaining, nanosUntilTokens(now, required(lane))));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RateLimitExceededException("rate.limit.error");
+        } finally {
+            waiting.merge(lane, -1, Integer::sum);
+            if(lane == RequestLane.INTERACTIVE) available.signalAll();
+            lock.unlock();
+        }
+
+        waits.get(lane).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Vacía el cubo tras un 429 de MangaDex para que nadie vuelva a llamar antes de que pase la pausa.
+     */
+    public void pause(Duration duration) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            tokens = 0;
+            pausedUntil = Math.max(pausedUntil, now + duration.toNanos());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canTake(RequestLane lane, long now) {
+        if(now < pausedUntil) return false;
+        if(lane == RequestLane.BACKGROUND && waiting.get(RequestLane.INTERACTIVE) > 0) return false;
+        return tokens >= required(lane);
+    }
+
+    private double required(RequestLane lane) {
+        return lane == RequestLane.INTERACTIVE ? 1 : Math.min(1 + reserve, burst);
+    }
+
+    private void refill(long now) {
+        tokens = Math.min(burst, tokens + (now - lastRefill) * permitsPerSecond / 1_000_000_000d);
+        lastRefill = now;
+    }
+
+    private long nanosUntilTokens(long now, double required) {
+        long untilToken = (long) (Math.max(0, required - tokens) * 1_000_000_000d / permitsPerSecond);
+        return Math.max(Math.max(pausedUntil - now, untilToken), TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private double availableTokens() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double waitingIn(RequestLane lane) {
+        lock.lock();
+        try {
+            return waiting.get(lane);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
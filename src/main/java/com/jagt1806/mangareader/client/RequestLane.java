@@ -0,0 +1,35 @@
+package com.jagt1806.mangareader.client;
+
+import java.util.function.Supplier;
+
+/**
+ * Carril con el que el hilo actual consume el cupo de peticiones a MangaDex. Por defecto todo es
+ * interactivo; los trabajos en segundo plano (precarga, sincronización, sondeo) se envuelven en BACKGROUND.
+ */
+public enum RequestLane {
+    INTERACTIVE,
+    BACKGROUND;
+
+    private static final ThreadLocal<RequestLane> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static RequestLane current() {
+        return CURRENT.get();
+    }
+
+    public <T> T call(Supplier<T> task) {
+        RequestLane previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            CURRENT.set(previous);
+        }
+    }
+
+    public void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,147 @@
+package com.jagt1806.mangareader.client;
+
+import com.jagt1806.mangareader.dto.api.*;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+@Primary
+@Component
+public class ResilientMangaClient implements MangaClient {
+    private final MangaClient mangaClient;
+    private final RateLimiter rateLimiter;
+    private final MeterRegistry registry;
+
+    @Value("${mangadex.circuit.window:20}")
+    private int circuitWindow;
+    @Value("${mangadex.circuit.minimum-calls:10}")
+    private int circuitMinimumCalls;
+    @Value("${mangadex.circuit.failure-rate:50}")
+    private int circuitFailureRate;
+    @Value("${mangadex.circuit.open-duration:30s}")
+    private Duration circuitOpenDuration;
+    @Value("${mangadex.retry.max-retries:2}")
+    private int maxRetries;
+    @Value("${mangadex.retry.budget-ratio:0.1}")
+    private double retryBudgetRatio;
+    @Value("${mangadex.retry.budget-max:10}")
+    private double retryBudgetMax;
+    @Value("${mangadex.retry.backoff:100ms}")
+    private Duration retryBackoff;
+    @Value("${mangadex.retry.max-backoff:1s}")
+    private Duration retryMaxBackoff;
+    @Value("${mangadex.stale.ttl:6h}")
+    private Duration staleTtl;
+    @Value("${mangadex.stale.size:5000}")
+    private long staleSize;
+
+    private MangaDexEndpoint<MangaList> search;
+    private MangaDexEndpoint<MangaList> updates;
+    private MangaDexEndpoint<MangaList> byIds;
+    private MangaDexEndpoint<Manga> manga;
+    private MangaDexEndpoint<FeedList> feed;
+    private MangaDexEndpoint<ChapterInfo> chapter;
+    private MangaDexEndpoint<FeedList> chapterUpdates;
+    private MangaDexEndpoint<Chapter> atHome;
+
+    public ResilientMangaClient(@Qualifier("mangaDexClient") MangaClient mangaClient, RateLimiter rateLimiter, MeterRegistry registry) {
+        this.mangaClient = mangaClient;
+        this.rateLimiter = rateLimiter;
+        this.registry = registry;
+    }
+
+    @PostConstruct
+    public void init() {
+        RetryPolicy retryPolicy = new RetryPolicy(maxRetries, retryBudgetRatio, retryBudgetMax, retryBackoff, retryMaxBackoff);
+        Gauge.builder("mangadex.retry.budget", retryPolicy, RetryPolicy::remaining).register(registry);
+
+        search = endpoint("getSearchManga", retryPolicy, staleTtl);
+        updates = endpoint("getMangaUpdates", retryPolicy, staleTtl);
+        byIds = endpoint("getMangaByIds", retryPolicy, staleTtl);
+        manga = endpoint("getMangaId", retryPolicy, staleTtl);
+        feed = endpoint("getMangaIdFeed", retryPolicy, staleTtl);
+        chapter = endpoint("getChapterId", retryPolicy, staleTtl);
+        chapterUpdates = endpoint("getChapterUpdates", retryPolicy, staleTtl);
+        // Las URLs de at-home caducan a los 15 minutos y la caché de capítulos puede guardarlas otros 10
+        atHome = endpoint("getAtHomeServerChapterId", retryPolicy, Duration.ofMinutes(5));
+    }
+
+    @Override
+    public MangaList getSearchManga(String title, String includes, int offset, int limit, List<String> contentRating, List<String> language) {
+        return search.execute(
+                Arrays.asList(title, includes, offset, limit, contentRating, language),
+                () -> mangaClient.getSearchManga(title, includes, offset, limit, contentRating, language)
+        );
+    }
+
+    @Override
+    public MangaList getMangaUpdates(String includes, String updatedAtSince, String order, List<String> contentRating, int offset, int limit) {
+        return updates.execute(
+                Arrays.asList(includes, updatedAtSince, order, contentRating, offset, limit),
+                () -> mangaClient.getMangaUpdates(includes, updatedAtSince, order, contentRating, offset, limit)
+        );
+    }
+
+    @Override
+    public MangaList getMangaByIds(List<String> ids, String includes, int limit, List<String> contentRating) {
+        return byIds.execute(
+                Arrays.asList(ids, includes, limit, contentRating),
+                () -> mangaClient.getMangaByIds(ids, includes, limit, contentRating)
+        );
+    }
+
+    @Override
+    public Manga getMangaId(String id, String include) {
+        return manga.execute(
+                Arrays.asList(id, include),
+                () -> mangaClient.getMangaId(id, include)
+        );
+    }
+
+    @Override
+    public FeedList getMangaIdFeed(String id, int offset, int limit, List<String> contentRating, Byte includeFutureUpdates,
+                                   String volume, String chapter, List<String> language) {
+        return feed.execute(
+                Arrays.asList(id, offset, limit, contentRating, includeFutureUpdates, volume, chapter, language),
+                () -> mangaClient.getMangaIdFeed(id, offset, limit, contentRating, includeFutureUpdates, volume, chapter, language)
+        );
+    }
+
+    @Override
+    public ChapterInfo getChapterId(String id) {
+        return chapter.execute(
+                Arrays.asList(id),
+                () -> mangaClient.getChapterId(id)
+        );
+    }
+
+    @Override
+    public FeedList getChapterUpdates(String manga, String publishAtSince, String order, List<String> contentRating,
+                                      Byte includeFutureUpdates, List<String> language, int offset, int limit) {
+        return chapterUpdates.execute(
+                Arrays.asList(manga, publishAtSince, order, contentRating, includeFutureUpdates, language, offset, limit),
+                () -> mangaClient.getChapterUpdates(manga, publishAtSince, order, contentRating, includeFutureUpdates, language, offset, limit)
+        );
+    }
+
+    @Override
+    public Chapter getAtHomeServerChapterId(String chapterId) {
+        return atHome.execute(
+                Arrays.asList(chapterId),
+                () -> mangaClient.getAtHomeServerChapterId(chapterId)
+        );
+    }
+
+    private <V> MangaDexEndpoint<V> endpoint(String method, RetryPolicy retryPolicy, Duration ttl) {
+        CircuitBreaker breaker = new CircuitBreaker(registry, method, circuitWindow, circuitMinimumCalls, circuitFailureRate, circuitOpenDuration);
+        return new MangaDexEndpoint<>(method, registry, rateLimiter, retryPolicy, breaker, ttl, staleSize);
+    }
+}
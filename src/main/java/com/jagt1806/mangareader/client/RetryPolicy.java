@@ -0,0 +1,68 @@
+package com.jagt1806.mangareader.client;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Reintentos con backoff exponencial y full jitter, limitados por un presupuesto global: cada
+ * llamada aporta ratio tokens y cada reintento gasta uno, así una caída no multiplica el tráfico.
+ */
+public class RetryPolicy {
+    private final int maxRetries;
+    private final double ratio;
+    private final double maxBudget;
+    private final long baseMillis;
+    private final long maxMillis;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private double budget;
+
+    public RetryPolicy(int maxRetries, double ratio, double maxBudget, Duration backoff, Duration maxBackoff) {
+        this.maxRetries = maxRetries;
+        this.ratio = ratio;
+        this.maxBudget = maxBudget;
+        this.baseMillis = backoff.toMillis();
+        this.maxMillis = maxBackoff.toMillis();
+        this.budget = maxBudget;
+    }
+
+    public void deposit() {
+        lock.lock();
+        try {
+            budget = Math.min(maxBudget, budget + ratio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean tryRetry(int attempt) {
+        if(attempt >= maxRetries) return false;
+        lock.lock();
+        try {
+            if(budget < 1) return false;
+            budget -= 1;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double remaining() {
+        lock.lock();
+        try {
+            return budget;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void backoff(int attempt) {
+        long cap = Math.min(maxMillis, baseMillis << Math.min(attempt, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
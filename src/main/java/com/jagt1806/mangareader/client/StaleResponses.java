@@ -0,0 +1,50 @@
+package com.jagt1806.mangareader.client;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * Marca la petición HTTP en curso cuando alguna respuesta de MangaDex se sirvió desde el último
+ * valor bueno conocido. Fuera de una petición (hilos en segundo plano) no hace nada. Además, quien
+ * necesite saber si un cálculo concreto usó valores de respaldo (por ejemplo, para no guardarlo en
+ * caché como si fuera fresco) lo envuelve en track, que funciona con o sin petición HTTP.
+ */
+public final class StaleResponses {
+    public static final String HEADER = "X-Stale-Response";
+    private static final String ATTRIBUTE = StaleResponses.class.getName();
+    private static final ThreadLocal<boolean[]> TRACKED = new ThreadLocal<>();
+
+    public record Tracked<T>(T value, boolean stale) {
+    }
+
+    private StaleResponses() {
+    }
+
+    public static void mark() {
+        boolean[] tracked = TRACKED.get();
+        if(tracked != null) tracked[0] = true;
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if(attributes != null) attributes.setAttribute(ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+    }
+
+    public static boolean isMarked() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null && attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null;
+    }
+
+    public static <T> Tracked<T> track(Supplier<T> task) {
+        boolean[] previous = TRACKED.get();
+        boolean[] tracked = new boolean[1];
+        TRACKED.set(tracked);
+        try {
+            T value = task.get();
+            return new Tracked<>(value, tracked[0]);
+        } finally {
+            TRACKED.set(previous);
+            if(previous != null && tracked[0]) previous[0] = true;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.jagt1806.mangareader.config;
+
+import com.jagt1806.mangareader.cache.TieredCache;
+import com.jagt1806.mangareader.cache.TieredCacheManager;
+import com.jagt1806.mangareader.http.response.manga.FeedMangaResponse;
+import com.jagt1806.mangareader.http.response.manga.MangaListResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class CacheConfig {
+    @Bean
+    public TieredCache<MangaListResponse> mangaSearchCache(
+            TieredCacheManager cacheManager,
+            @Value("${cache.manga.search.ttl:5m}") Duration ttl,
+            @Value("${cache.manga.search.stale:30m}") Duration stale,
+            @Value("${cache.manga.search.size:10000}") long size) {
+        return cacheManager.create("manga-search", MangaListResponse.class, ttl, stale, size);
+    }
+
+    @Bean
+    public TieredCache<FeedMangaResponse> mangaFeedCache(
+            TieredCacheManager cacheManager,
+            @Value("${cache.manga.feed.ttl:5m}") Duration ttl,
+            @Value("${cache.manga.feed.stale:30m}") Duration stale,
+            @Value("${cache.manga.feed.size:5000}") long size) {
+        return cacheManager.create("manga-feed", FeedMangaResponse.class, ttl, stale, size);
+    }
+}
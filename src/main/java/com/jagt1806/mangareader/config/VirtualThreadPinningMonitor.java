@@ -0,0 +1,67 @@
+package com.jagt1806.mangareader.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Escucha el evento JFR jdk.VirtualThreadPinned y lo publica como métrica y en el log con la pila
+ * recortada, para localizar synchronized que bloquean el carrier (JDBC, Feign, SMTP...).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+    private static final int FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${virtual-threads.pinning.threshold:20ms}")
+    private Duration threshold;
+
+    private RecordingStream stream;
+    private Counter pinned;
+
+    @PostConstruct
+    public void init() {
+        pinned = meterRegistry.counter("jvm.threads.virtual.pinned");
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        if(event.getStackTrace() == null) return;
+
+        String frames = event.getStackTrace().getFrames().stream()
+                .limit(FRAMES)
+                .map(this::format)
+                .collect(Collectors.joining("\n\tat "));
+        log.warn("Hilo virtual fijado durante {} ms\n\tat {}", event.getDuration().toMillis(), frames);
+    }
+
+    private String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
@@ -2,8 +2,11 @@ package com.jagt1806.mangareader.controller;
 
 import com.jagt1806.mangareader.http.request.favorite.FavoriteRequest;
 import com.jagt1806.mangareader.http.response.error.ErrorResponse;
+import com.jagt1806.mangareader.http.response.favorite.EnrichedFavoriteListResponse;
 import com.jagt1806.mangareader.http.response.favorite.FavoriteListResponse;
+import com.jagt1806.mangareader.http.response.favorite.FavoriteUpdateListResponse;
 import com.jagt1806.mangareader.http.response.ok.OkResponse;
+import com.jagt1806.mangareader.service.ChapterEventService;
 import com.jagt1806.mangareader.service.FavoriteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,10 +16,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Instant;
 
 @RestController
 @RequiredArgsConstructor
@@ -25,6 +33,7 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Favorites", description = "Buscar información de los favoritos")
 public class FavoriteController {
     private final FavoriteService favoriteService;
+    private final ChapterEventService chapterEventService;
 
     @Operation(summary = "Obtener lista de favoritos", description = "Recupera todos los favoritos")
     @ApiResponses(value = {
@@ -65,6 +74,57 @@ public class FavoriteController {
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Obtener lista de favoritos enriquecida", description = "Recupera los favoritos de un usuario junto con la información actual de cada manga en MangaDex")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lista de favoritos obtenida exitosamente",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = EnrichedFavoriteListResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Usuario no encontrado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PreAuthorize("hasAuthority('${app.admin.role}') or @userSecurity.isUserAllowed(#userId)")
+    @GetMapping("/{userId}/user/enriched")
+    public ResponseEntity<EnrichedFavoriteListResponse> getEnrichedFavoritesByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false, defaultValue = "0") int offset,
+            @RequestParam(required = false, defaultValue = "12") int limit,
+            @RequestHeader(value = "Accept-Language", defaultValue = "es") String language
+    ) {
+        EnrichedFavoriteListResponse response = favoriteService.getEnrichedFavoriteByUserId(userId, offset, limit, language.substring(0, 2).toLowerCase());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Obtener capítulos nuevos de los favoritos", description = "Devuelve el último capítulo publicado de cada favorito del usuario según el sondeo periódico, sin consultar MangaDex")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Últimos capítulos obtenidos exitosamente",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = FavoriteUpdateListResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Usuario no encontrado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PreAuthorize("hasAuthority('${app.admin.role}') or @userSecurity.isUserAllowed(#userId)")
+    @GetMapping("/{userId}/updates")
+    public ResponseEntity<FavoriteUpdateListResponse> getUpdatesByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant since
+    ) {
+        FavoriteUpdateListResponse response = favoriteService.getUpdatesByUserId(userId, since);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Suscribirse a capítulos nuevos", description = "Abre un flujo Server-Sent Events que notifica cada capítulo nuevo de los favoritos del usuario")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Flujo de eventos abierto",
+                    content = @Content(mediaType = MediaType.TEXT_EVENT_STREAM_VALUE))
+    })
+    @PreAuthorize("hasAuthority('${app.admin.role}') or @userSecurity.isUserAllowed(#userId)")
+    @GetMapping(value = "/{userId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter getEvents(@PathVariable Long userId) {
+        return chapterEventService.subscribe(userId);
+    }
+
     @Operation(summary = "Verificar existencia del favorito del usuario", description = "Comprueba si un manga está en favoritos de un usuario")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Lista de favoritos obtenida exitosamente",
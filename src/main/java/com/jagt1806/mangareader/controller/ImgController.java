@@ -6,6 +6,7 @@ import com.jagt1806.mangareader.http.response.error.ErrorResponse;
 import com.jagt1806.mangareader.http.response.img.ImgListResponse;
 import com.jagt1806.mangareader.http.response.ok.OkResponse;
 import com.jagt1806.mangareader.service.ImgService;
+import com.jagt1806.mangareader.util.JsonResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -14,16 +15,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/api/img")
 @RequiredArgsConstructor
 @Tag(name = "Images", description = "Gestión de imágenes")
 public class ImgController {
   private final ImgService imgService;
+  private final JsonResponseUtil jsonResponseUtil;
 
   @Operation(summary = "Listar imágenes", description = "Recupera una lista paginada de imágenes")
   @ApiResponses(value = {
@@ -31,11 +37,13 @@ public class ImgController {
       @ApiResponse(responseCode = "400", description = "Solicitud inválida", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
   })
   @GetMapping
-  public ResponseEntity<ImgListResponse> getAllImg(
+  public ResponseEntity<byte[]> getAllImg(
       @RequestParam(required = false, defaultValue = "0") int offset,
-      @RequestParam(required = false, defaultValue = "10") int limit) {
+      @RequestParam(required = false, defaultValue = "10") int limit,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
     ImgListResponse response = imgService.getAllImg(offset, limit);
-    return ResponseEntity.ok(response);
+    return jsonResponseUtil.serveFresh(response, CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic(), ifNoneMatch, acceptEncoding);
   }
 
   @Operation(summary = "Obtener imagen", description = "Recupera una imagen específica por su ID", security = @SecurityRequirement(name = ""))
@@ -44,8 +52,11 @@ public class ImgController {
       @ApiResponse(responseCode = "404", description = "Imagen no encontrada", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
   })
   @GetMapping("/{id}")
-  public ResponseEntity<Img> getImg(@PathVariable Long id) {
-    return ResponseEntity.ok(imgService.getById(id));
+  public ResponseEntity<byte[]> getImg(
+      @PathVariable Long id,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    return jsonResponseUtil.serveFresh(imgService.getById(id), CacheControl.maxAge(5, TimeUnit.MINUTES).cachePrivate(), ifNoneMatch, acceptEncoding);
   }
 
   @Operation(summary = "Crear imagen", description = "Añade una nueva imagen al sistema")
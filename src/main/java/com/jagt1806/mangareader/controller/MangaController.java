@@ -1,11 +1,27 @@
 package com.jagt1806.mangareader.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagt1806.mangareader.dto.manga.ChapterPageDTO;
+import com.jagt1806.mangareader.dto.manga.CoverDTO;
+import com.jagt1806.mangareader.dto.manga.FeedMangaDTO;
 import com.jagt1806.mangareader.http.response.error.ErrorResponse;
 import com.jagt1806.mangareader.http.response.manga.ChapterMangaResponse;
+import com.jagt1806.mangareader.http.response.manga.FacetedMangaListResponse;
+import com.jagt1806.mangareader.http.response.manga.MangaBatchResponse;
 import com.jagt1806.mangareader.http.response.manga.FeedMangaResponse;
 import com.jagt1806.mangareader.http.response.manga.MangaListResponse;
 import com.jagt1806.mangareader.http.response.manga.MangaResponse;
+import com.jagt1806.mangareader.http.response.manga.SimilarResponse;
+import com.jagt1806.mangareader.http.response.manga.SuggestResponse;
+import com.jagt1806.mangareader.http.response.manga.TrendingResponse;
+import com.jagt1806.mangareader.service.ChapterPageService;
+import com.jagt1806.mangareader.service.CoverService;
 import com.jagt1806.mangareader.service.MangaService;
+import com.jagt1806.mangareader.service.SimilarService;
+import com.jagt1806.mangareader.service.SuggestService;
+import com.jagt1806.mangareader.service.TrendingService;
+import com.jagt1806.mangareader.util.FileResponseUtil;
+import com.jagt1806.mangareader.util.JsonResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -13,8 +29,14 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequiredArgsConstructor
@@ -22,61 +44,270 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Mangas", description = "Buscar información de MangaDex API")
 public class MangaController {
   private final MangaService mangaService;
+  private final ChapterPageService chapterPageService;
+  private final CoverService coverService;
+  private final SimilarService similarService;
+  private final SuggestService suggestService;
+  private final TrendingService trendingService;
+  private final FileResponseUtil fileResponseUtil;
+  private final ObjectMapper objectMapper;
+  private final JsonResponseUtil jsonResponseUtil;
+
+  // Búsqueda: resultados cambiantes. Chapter con proxy: URLs estables. Chapter directo: URLs de at-home (~15 min)
+  private static final CacheControl SUGGEST_CACHE = CacheControl.maxAge(30, TimeUnit.SECONDS).cachePublic();
+  private static final CacheControl TRENDING_CACHE = CacheControl.maxAge(1, TimeUnit.MINUTES).cachePublic();
+  private static final CacheControl SEARCH_CACHE = CacheControl.maxAge(1, TimeUnit.MINUTES).cachePublic();
+  private static final CacheControl MANGA_CACHE = CacheControl.maxAge(10, TimeUnit.MINUTES).cachePublic();
+  private static final CacheControl FEED_CACHE = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+  private static final CacheControl CHAPTER_CACHE = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+  private static final CacheControl PROXY_CHAPTER_CACHE = CacheControl.maxAge(1, TimeUnit.DAYS).cachePublic();
+  private static final CacheControl COVER_CACHE = CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic().immutable();
+  private static final CacheControl COVER_FALLBACK_CACHE = CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic();
+  private static final MediaType CBZ = MediaType.parseMediaType("application/vnd.comicbook+zip");
 
   @Operation(summary = "Obtener mangas", description = "Obtiene la información de los mangas de la API de MangaDex")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Mangas encontrados exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = MangaListResponse.class))),
+      @ApiResponse(responseCode = "304", description = "El contenido no ha cambiado desde el ETag enviado", content = @Content),
       @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
   })
   @GetMapping
-  public ResponseEntity<MangaListResponse> getMangas(
+  public ResponseEntity<byte[]> getMangas(
       @RequestParam(required = false) String title,
       @RequestParam(required = false, defaultValue = "0") int offset,
       @RequestParam(required = false, defaultValue = "12") int limit,
       @RequestParam(required = false, defaultValue = "false") boolean nsfw,
-      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language) {
+      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
     MangaListResponse response = mangaService.getMangas(title, offset, limit, nsfw, language.substring(0, 2).toLowerCase());
-    return ResponseEntity.ok(response);
+    return jsonResponseUtil.serve(response, SEARCH_CACHE, ifNoneMatch, acceptEncoding);
+  }
+
+  @Operation(summary = "Filtrar mangas por facetas", description = "Filtra el catálogo local por etiqueta, valoración, estado y idioma disponible, devolviendo además el recuento de cada faceta")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Mangas filtrados exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = FacetedMangaListResponse.class)))
+  })
+  @GetMapping("/facets")
+  public ResponseEntity<FacetedMangaListResponse> getFacetedMangas(
+      @RequestParam(required = false) List<String> tag,
+      @RequestParam(required = false) List<String> rating,
+      @RequestParam(required = false) List<String> status,
+      @RequestParam(value = "translatedLanguage", required = false) List<String> translatedLanguage,
+      @RequestParam(required = false, defaultValue = "false") boolean nsfw,
+      @RequestParam(required = false, defaultValue = "0") int offset,
+      @RequestParam(required = false, defaultValue = "12") int limit,
+      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language) {
+    FacetedMangaListResponse response = mangaService.getFacetedMangas(
+        tag, rating, status, translatedLanguage, nsfw, offset, limit, language.substring(0, 2).toLowerCase()
+    );
+    return ResponseEntity.ok().cacheControl(SEARCH_CACHE).body(response);
+  }
+
+  @Operation(summary = "Sugerir títulos", description = "Autocompleta títulos de manga desde un índice en memoria de los títulos ya vistos, sin consultar MangaDex")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Sugerencias encontradas", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SuggestResponse.class)))
+  })
+  @GetMapping("/suggest")
+  public ResponseEntity<SuggestResponse> suggest(
+      @RequestParam String q,
+      @RequestParam(required = false, defaultValue = "10") int limit,
+      @RequestParam(required = false, defaultValue = "false") boolean nsfw) {
+    SuggestResponse response = suggestService.suggest(q, limit, nsfw);
+    return ResponseEntity.ok().cacheControl(SUGGEST_CACHE).body(response);
+  }
+
+  @Operation(summary = "Obtener mangas en tendencia", description = "Devuelve los mangas en tendencia (favoritos recientes con decaimiento exponencial) o los más añadidos a favoritos, calculados en memoria a partir de contadores incrementales")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Ranking obtenido exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = TrendingResponse.class))),
+      @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  @GetMapping("/trending")
+  public ResponseEntity<TrendingResponse> getTrending(
+      @RequestParam(required = false, defaultValue = TrendingService.TRENDING) String type,
+      @RequestParam(required = false, defaultValue = "12") int limit,
+      @RequestParam(required = false, defaultValue = "false") boolean nsfw,
+      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language) {
+    TrendingResponse response = trendingService.getTrending(type, limit, nsfw, language.substring(0, 2).toLowerCase());
+    return ResponseEntity.ok().cacheControl(TRENDING_CACHE).body(response);
+  }
+
+  @Operation(summary = "Obtener varios mangas por id", description = "Obtiene en una sola llamada la información de varios mangas, en el mismo orden en que se piden")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Mangas encontrados exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = MangaBatchResponse.class))),
+      @ApiResponse(responseCode = "304", description = "El contenido no ha cambiado desde el ETag enviado", content = @Content),
+      @ApiResponse(responseCode = "400", description = "Demasiados ids en la petición", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  @GetMapping("/batch")
+  public ResponseEntity<byte[]> getMangasByIds(
+      @RequestParam List<String> ids,
+      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    MangaBatchResponse response = mangaService.getMangasByIds(ids, language.substring(0, 2).toLowerCase());
+    return jsonResponseUtil.serveFresh(response, MANGA_CACHE, ifNoneMatch, acceptEncoding);
   }
 
   @Operation(summary = "Obtener manga por id", description = "Obtiene la información del manga por id de la API de MangaDex")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Manga encontrado exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = MangaResponse.class))),
+      @ApiResponse(responseCode = "304", description = "El contenido no ha cambiado desde el ETag enviado", content = @Content),
       @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
   })
   @GetMapping("/{id}")
-  public ResponseEntity<MangaResponse> getMangaById(
+  public ResponseEntity<byte[]> getMangaById(
       @PathVariable String id,
-      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language) {
+      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
     MangaResponse response = mangaService.getMangaId(id, language.substring(0, 2).toLowerCase());
-    return ResponseEntity.ok(response);
+    return jsonResponseUtil.serve(response, MANGA_CACHE, ifNoneMatch, acceptEncoding);
+  }
+
+  @Operation(summary = "Obtener mangas similares", description = "Devuelve los mangas que más usuarios tienen en favoritos junto al indicado, calculados periódicamente y servidos desde memoria")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Mangas similares encontrados (lista vacía si aún no hay datos suficientes)", content = @Content(mediaType = "application/json", schema = @Schema(implementation = SimilarResponse.class))),
+      @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  @GetMapping("/{id}/similar")
+  public ResponseEntity<SimilarResponse> getSimilar(
+      @PathVariable String id,
+      @RequestParam(required = false, defaultValue = "10") int limit,
+      @RequestParam(required = false, defaultValue = "false") boolean nsfw,
+      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language) {
+    SimilarResponse response = similarService.getSimilar(id, limit, nsfw, language.substring(0, 2).toLowerCase());
+    return ResponseEntity.ok().cacheControl(MANGA_CACHE).body(response);
+  }
+
+  @Operation(summary = "Obtener portada de un manga", description = "Sirve la portada redimensionada al ancho más cercano disponible, generándola y guardándola en disco la primera vez")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Imagen de la portada", content = @Content(mediaType = "image/*")),
+      @ApiResponse(responseCode = "304", description = "El contenido no ha cambiado desde el ETag enviado", content = @Content),
+      @ApiResponse(responseCode = "404", description = "El manga no tiene portada", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  @GetMapping("/{id}/cover")
+  public ResponseEntity<StreamingResponseBody> getCover(
+      @PathVariable String id,
+      @RequestParam(required = false, defaultValue = "256") int w,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+    CoverDTO response = coverService.getCover(id, w);
+    return fileResponseUtil.serve(
+        response.getFile(),
+        response.getSize(),
+        response.getEtag(),
+        MediaTypeFactory.getMediaType(response.getFileName()).orElse(MediaType.APPLICATION_OCTET_STREAM),
+        response.isResized() ? COVER_CACHE : COVER_FALLBACK_CACHE,
+        ifNoneMatch,
+        range
+    );
   }
 
   @Operation(summary = "Obtener el contenido de un manga", description = "Obtiene los capítulos y volúmenes de los mangas de la API de MangaDex")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Contenido traído exitosamente", content = @Content(mediaType = "application/json", schema = @Schema(implementation = FeedMangaResponse.class))),
+      @ApiResponse(responseCode = "304", description = "El contenido no ha cambiado desde el ETag enviado", content = @Content),
       @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
   })
   @GetMapping("/{id}/feed")
-  public ResponseEntity<FeedMangaResponse> searchFeed(
+  public ResponseEntity<byte[]> searchFeed(
       @PathVariable String id,
       @RequestParam(required = false, defaultValue = "0") int offset,
       @RequestParam(required = false, defaultValue = "100") int limit,
       @RequestParam(required = false, defaultValue = "false") boolean nsfw,
-      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language) {
+      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
     FeedMangaResponse response = mangaService.getFeed(id, offset, limit, nsfw, language.substring(0, 2).toLowerCase());
-    return ResponseEntity.ok(response);
+    return jsonResponseUtil.serve(response, FEED_CACHE, ifNoneMatch, acceptEncoding);
+  }
+
+  @Operation(summary = "Obtener el contenido completo de un manga", description = "Transmite todos los capítulos del manga en formato NDJSON, consultando las páginas de MangaDex en paralelo")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Capítulos transmitidos en orden", content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE, schema = @Schema(implementation = FeedMangaDTO.class))),
+      @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  @GetMapping(value = "/{id}/feed/full", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamFeed(
+      @PathVariable String id,
+      @RequestParam(required = false, defaultValue = "false") boolean nsfw,
+      @RequestHeader(value = "Accept-Language", defaultValue = "es") String language) {
+    String lang = language.substring(0, 2).toLowerCase();
+    StreamingResponseBody response = out -> mangaService.streamFeed(id, nsfw, lang, page -> {
+      try {
+        for (FeedMangaDTO chapter : page) {
+          out.write(objectMapper.writeValueAsBytes(chapter));
+          out.write('\n');
+        }
+        out.flush();
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(response);
   }
 
   @Operation(summary = "Obtener contenido de un capítulo", description = "Obtiene las imágenes de un capítulo de un manga de la API de MangaDex")
   @ApiResponses(value = {
       @ApiResponse(responseCode = "200", description = "Datos encontrados", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ChapterMangaResponse.class))),
+      @ApiResponse(responseCode = "304", description = "El contenido no ha cambiado desde el ETag enviado", content = @Content),
       @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
   })
   @GetMapping("/chapter/{idChapter}")
-  public ResponseEntity<ChapterMangaResponse> getChapter(@PathVariable String idChapter) {
-    ChapterMangaResponse response = mangaService.getChapter(idChapter);
-    return ResponseEntity.ok(response);
+  public ResponseEntity<byte[]> getChapter(
+      @PathVariable String idChapter,
+      @RequestParam(required = false, defaultValue = "false") boolean proxy,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+    ChapterMangaResponse response = mangaService.getChapter(idChapter, proxy);
+    return jsonResponseUtil.serve(response, proxy ? PROXY_CHAPTER_CACHE : CHAPTER_CACHE, ifNoneMatch, acceptEncoding);
+  }
+
+  @Operation(summary = "Descargar un capítulo", description = "Genera al vuelo un archivo CBZ con las páginas del capítulo en orden, reutilizando la caché local de páginas")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Archivo CBZ del capítulo", content = @Content(mediaType = "application/vnd.comicbook+zip")),
+      @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  @GetMapping("/chapter/{idChapter}/archive")
+  public ResponseEntity<StreamingResponseBody> getChapterArchive(
+      @PathVariable String idChapter,
+      @RequestParam(required = false, defaultValue = "false") boolean saver) {
+    StreamingResponseBody response = out -> mangaService.streamChapterArchive(idChapter, saver, out);
+    return ResponseEntity.ok()
+        .contentType(CBZ)
+        .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(idChapter + (saver ? "-data-saver" : "") + ".cbz")
+            .build()
+            .toString())
+        .body(response);
+  }
+
+  @Operation(summary = "Obtener página de un capítulo", description = "Sirve la imagen de una página desde la caché local, descargándola de MangaDex@Home si no existe")
+  @ApiResponses(value = {
+      @ApiResponse(responseCode = "200", description = "Imagen de la página", content = @Content(mediaType = "image/*")),
+      @ApiResponse(responseCode = "206", description = "Rango parcial de la imagen", content = @Content(mediaType = "image/*")),
+      @ApiResponse(responseCode = "404", description = "Página no encontrada", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+      @ApiResponse(responseCode = "502", description = "Error con la conexión de la API", content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+  })
+  @GetMapping("/chapter/{idChapter}/page/{page}")
+  public ResponseEntity<StreamingResponseBody> getChapterPage(
+      @PathVariable String idChapter,
+      @PathVariable int page,
+      @RequestParam(required = false, defaultValue = "false") boolean saver,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+      @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+    ChapterPageDTO response = chapterPageService.getPage(idChapter, page, saver);
+    return fileResponseUtil.serve(
+        response.getFile(),
+        response.getSize(),
+        response.getEtag(),
+        MediaTypeFactory.getMediaType(response.getFileName()).orElse(MediaType.APPLICATION_OCTET_STREAM),
+        CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic().immutable(),
+        ifNoneMatch,
+        range
+    );
   }
 
 }
@@ -0,0 +1,74 @@
+package com.jagt1806.mangareader.controller;
+
+import com.jagt1806.mangareader.dto.progress.ReadingProgressDTO;
+import com.jagt1806.mangareader.http.request.progress.ReadingProgressRequest;
+import com.jagt1806.mangareader.http.response.error.ErrorResponse;
+import com.jagt1806.mangareader.http.response.ok.OkResponse;
+import com.jagt1806.mangareader.http.response.progress.ReadingProgressListResponse;
+import com.jagt1806.mangareader.service.ReadingProgressService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/progress")
+@SecurityRequirement(name = "Auth")
+@Tag(name = "Progress", description = "Guardar y consultar la posición de lectura")
+public class ReadingProgressController {
+    private final ReadingProgressService readingProgressService;
+
+    @Operation(summary = "Obtener progreso de lectura", description = "Recupera la última posición de lectura de un usuario en todos sus mangas")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progreso obtenido exitosamente",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReadingProgressListResponse.class)))
+    })
+    @PreAuthorize("hasAuthority('${app.admin.role}') or @userSecurity.isUserAllowed(#userId)")
+    @GetMapping("/{userId}")
+    public ResponseEntity<ReadingProgressListResponse> getProgressByUserId(@PathVariable Long userId) {
+        ReadingProgressListResponse response = readingProgressService.getProgressByUserId(userId);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Obtener progreso de un manga", description = "Recupera la última posición de lectura de un usuario en un manga")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progreso obtenido exitosamente",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ReadingProgressDTO.class))),
+            @ApiResponse(responseCode = "404", description = "No hay progreso guardado para el manga",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PreAuthorize("hasAuthority('${app.admin.role}') or @userSecurity.isUserAllowed(#userId)")
+    @GetMapping("/{userId}/manga/{mangaId}")
+    public ResponseEntity<ReadingProgressDTO> getProgress(@PathVariable Long userId, @PathVariable String mangaId) {
+        ReadingProgressDTO response = readingProgressService.getProgress(userId, mangaId);
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(summary = "Guardar progreso de lectura", description = "Registra la página actual del lector; se guarda en diferido y solo se conserva la última posición por manga")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Progreso aceptado",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = OkResponse.class))),
+            @ApiResponse(responseCode = "400", description = "Solicitud inválida",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PreAuthorize("hasAuthority('${app.admin.role}') or @userSecurity.isUserAllowed(#userId)")
+    @PutMapping("/{userId}")
+    public ResponseEntity<OkResponse> reportProgress(@PathVariable Long userId, @RequestBody ReadingProgressRequest request) {
+        readingProgressService.reportProgress(userId, request);
+        return new ResponseEntity<>(new OkResponse(), HttpStatus.ACCEPTED);
+    }
+}
@@ -0,0 +1,8 @@
+package com.jagt1806.mangareader.dto.api;
+
+import lombok.Data;
+
+@Data
+public class ChapterInfo {
+    private Feed data;
+}
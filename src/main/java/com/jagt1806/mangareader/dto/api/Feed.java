@@ -1,10 +1,14 @@
 package com.jagt1806.mangareader.dto.api;
 
 import com.jagt1806.mangareader.dto.api.attributes.FeedAttributes;
+import com.jagt1806.mangareader.dto.api.attributes.MangaRelationship;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class Feed {
     private String id;
     private FeedAttributes attributes;
+    private List<MangaRelationship> relationships;
 }
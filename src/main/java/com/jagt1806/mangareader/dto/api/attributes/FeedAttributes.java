@@ -9,4 +9,5 @@ public class FeedAttributes {
     private String title;
     private String translatedLanguage;
     private int pages;
+    private String publishAt;
 }
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
 import java.util.Map;
 
 @Data
@@ -11,5 +12,11 @@ import java.util.Map;
 @NoArgsConstructor
 public class MangaAttributes {
     private Map<String, String> title;
+    private List<Map<String, String>> altTitles;
     private Map<String, String> description;
+    private String contentRating;
+    private String status;
+    private List<MangaTag> tags;
+    private List<String> availableTranslatedLanguages;
+    private String updatedAt;
 }
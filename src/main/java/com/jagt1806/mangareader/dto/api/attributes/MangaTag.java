@@ -0,0 +1,9 @@
+package com.jagt1806.mangareader.dto.api.attributes;
+
+import lombok.Data;
+
+@Data
+public class MangaTag {
+    private String id;
+    private TagAttributes attributes;
+}
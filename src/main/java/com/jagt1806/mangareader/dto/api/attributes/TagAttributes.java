@@ -0,0 +1,11 @@
+package com.jagt1806.mangareader.dto.api.attributes;
+
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+public class TagAttributes {
+    private Map<String, String> name;
+    private String group;
+}
@@ -0,0 +1,18 @@
+package com.jagt1806.mangareader.dto.favorite;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterEventDTO {
+    private String idManga;
+    private String chapterId;
+    private String chapter;
+    private String translatedLanguage;
+    private Instant publishAt;
+}
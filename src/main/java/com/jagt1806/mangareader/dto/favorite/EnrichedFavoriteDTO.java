@@ -0,0 +1,18 @@
+package com.jagt1806.mangareader.dto.favorite;
+
+import com.jagt1806.mangareader.dto.manga.MangaDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrichedFavoriteDTO {
+    private Long id;
+    private String idManga;
+    private Long userId;
+    private String nameManga;
+    private String urlImage;
+    private MangaDTO manga;
+}
@@ -0,0 +1,21 @@
+package com.jagt1806.mangareader.dto.favorite;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteUpdateDTO {
+    private String idManga;
+    private String nameManga;
+    private String urlImage;
+    private String chapterId;
+    private String chapter;
+    private String title;
+    private String translatedLanguage;
+    private Instant publishAt;
+}
@@ -0,0 +1,17 @@
+package com.jagt1806.mangareader.dto.manga;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterPageDTO {
+    private Path file;
+    private String fileName;
+    private long size;
+    private String etag;
+}
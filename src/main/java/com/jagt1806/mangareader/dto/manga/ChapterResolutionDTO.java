@@ -0,0 +1,16 @@
+package com.jagt1806.mangareader.dto.manga;
+
+import com.jagt1806.mangareader.dto.api.Chapter;
+import com.jagt1806.mangareader.http.response.manga.ChapterMangaResponse;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterResolutionDTO {
+    private Chapter chapter;
+    private ChapterMangaResponse urls;
+    private ChapterMangaResponse proxyUrls;
+}
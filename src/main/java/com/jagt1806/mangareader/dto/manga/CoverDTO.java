@@ -0,0 +1,18 @@
+package com.jagt1806.mangareader.dto.manga;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.file.Path;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoverDTO {
+    private Path file;
+    private String fileName;
+    private long size;
+    private String etag;
+    private boolean resized;
+}
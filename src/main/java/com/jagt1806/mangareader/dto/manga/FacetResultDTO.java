@@ -0,0 +1,17 @@
+package com.jagt1806.mangareader.dto.manga;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetResultDTO {
+    private List<String> ids;
+    private long total;
+    private Map<String, Map<String, Integer>> facets;
+}
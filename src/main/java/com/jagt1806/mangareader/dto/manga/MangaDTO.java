@@ -13,4 +13,5 @@ public class MangaDTO {
     private String description;
     private String coverId;
     private String fileName;
+    private String contentRating;
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.jagt1806.mangareader.dto.manga;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String id;
+    private String title;
+}
@@ -0,0 +1,14 @@
+package com.jagt1806.mangareader.dto.manga;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingMangaDTO {
+    private MangaDTO manga;
+    private long favorites;
+    private double score;
+}
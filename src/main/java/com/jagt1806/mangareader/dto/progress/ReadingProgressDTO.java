@@ -0,0 +1,18 @@
+package com.jagt1806.mangareader.dto.progress;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingProgressDTO {
+    private Long userId;
+    private String mangaId;
+    private String chapterId;
+    private int page;
+    private Instant updatedAt;
+}
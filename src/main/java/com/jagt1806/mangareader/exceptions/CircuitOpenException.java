@@ -0,0 +1,7 @@
+package com.jagt1806.mangareader.exceptions;
+
+public class CircuitOpenException extends RuntimeException {
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
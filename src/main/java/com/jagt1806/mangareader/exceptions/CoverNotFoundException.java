@@ -0,0 +1,7 @@
+package com.jagt1806.mangareader.exceptions;
+
+public class CoverNotFoundException extends RuntimeException {
+    public CoverNotFoundException(String message) {
+        super(message);
+    }
+}
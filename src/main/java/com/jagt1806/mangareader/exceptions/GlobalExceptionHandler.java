@@ -5,6 +5,7 @@ import com.jagt1806.mangareader.util.MessageUtil;
 import feign.FeignException;
 import jakarta.mail.MessagingException;
 import lombok.AllArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
@@ -71,6 +72,35 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_GATEWAY);
     }
 
+    @ExceptionHandler({RateLimitExceededException.class, FeignException.TooManyRequests.class})
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RuntimeException ex) {
+        ErrorResponse response = new ErrorResponse(
+                messageUtil.getMessage("rate.limit.error"),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                LocalDateTime.now());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<ErrorResponse> handleCircuitOpenException(CircuitOpenException ex) {
+        ErrorResponse response = new ErrorResponse(
+                messageUtil.getMessage("circuit.open.error"),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
+    @ExceptionHandler(CoverNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleCoverNotFoundException(CoverNotFoundException ex) {
+        ErrorResponse response = new ErrorResponse(
+                messageUtil.getMessage("cover.not.found"),
+                HttpStatus.NOT_FOUND.value(),
+                LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException ex) {
         ErrorResponse response = new ErrorResponse(
@@ -91,6 +121,15 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(ImageFetchException.class)
+    public ResponseEntity<ErrorResponse> handleImageFetchException(ImageFetchException ex) {
+        ErrorResponse response = new ErrorResponse(
+                messageUtil.getMessage("image.fetch.error"),
+                HttpStatus.BAD_GATEWAY.value(),
+                LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.BAD_GATEWAY);
+    }
+
     @ExceptionHandler(ImgNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleImgNotFoundException(ImgNotFoundException ex) {
         ErrorResponse response = new ErrorResponse(
@@ -118,6 +157,24 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(PageNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handlePageNotFoundException(PageNotFoundException ex) {
+        ErrorResponse response = new ErrorResponse(
+                messageUtil.getMessage("page.not.found"),
+                HttpStatus.NOT_FOUND.value(),
+                LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(ProgressNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleProgressNotFoundException(ProgressNotFoundException ex) {
+        ErrorResponse response = new ErrorResponse(
+                messageUtil.getMessage("progress.not.found"),
+                HttpStatus.NOT_FOUND.value(),
+                LocalDateTime.now());
+        return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(RoleNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleRoleNotFoundException(RoleNotFoundException ex) {
         ErrorResponse response = new ErrorResponse(
@@ -0,0 +1,7 @@
+package com.jagt1806.mangareader.exceptions;
+
+public class ImageFetchException extends RuntimeException {
+    public ImageFetchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.jagt1806.mangareader.exceptions;
+
+public class PageNotFoundException extends RuntimeException {
+    public PageNotFoundException(String message) {
+        super(message);
+    }
+}
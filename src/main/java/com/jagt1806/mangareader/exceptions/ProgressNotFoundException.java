@@ -0,0 +1,7 @@
+package com.jagt1806.mangareader.exceptions;
+
+public class ProgressNotFoundException extends RuntimeException {
+    public ProgressNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.jagt1806.mangareader.exceptions;
+
+public class RateLimitExceededException extends RuntimeException {
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.jagt1806.mangareader.http.request.progress;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingProgressRequest {
+    private String mangaId;
+    private String chapterId;
+    private int page;
+}
@@ -0,0 +1,18 @@
+package com.jagt1806.mangareader.http.response.favorite;
+
+import com.jagt1806.mangareader.dto.favorite.EnrichedFavoriteDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrichedFavoriteListResponse {
+    private List<EnrichedFavoriteDTO> data;
+    private int offset;
+    private int limit;
+    private long total;
+}
@@ -0,0 +1,17 @@
+package com.jagt1806.mangareader.http.response.favorite;
+
+import com.jagt1806.mangareader.dto.favorite.FavoriteUpdateDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FavoriteUpdateListResponse {
+    private List<FavoriteUpdateDTO> data;
+    private Instant since;
+}
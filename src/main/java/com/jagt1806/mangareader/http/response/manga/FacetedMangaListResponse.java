@@ -0,0 +1,20 @@
+package com.jagt1806.mangareader.http.response.manga;
+
+import com.jagt1806.mangareader.dto.manga.MangaDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetedMangaListResponse {
+    private List<MangaDTO> data;
+    private int offset;
+    private int limit;
+    private long total;
+    private Map<String, Map<String, Integer>> facets;
+}
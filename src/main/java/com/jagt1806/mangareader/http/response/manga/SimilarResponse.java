@@ -0,0 +1,15 @@
+package com.jagt1806.mangareader.http.response.manga;
+
+import com.jagt1806.mangareader.dto.manga.SimilarMangaDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SimilarResponse {
+    private List<SimilarMangaDTO> data;
+}
@@ -0,0 +1,15 @@
+package com.jagt1806.mangareader.http.response.manga;
+
+import com.jagt1806.mangareader.dto.manga.SuggestionDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestResponse {
+    private List<SuggestionDTO> data;
+}
@@ -0,0 +1,15 @@
+package com.jagt1806.mangareader.http.response.progress;
+
+import com.jagt1806.mangareader.dto.progress.ReadingProgressDTO;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadingProgressListResponse {
+    private List<ReadingProgressDTO> data;
+}
@@ -0,0 +1,26 @@
+package com.jagt1806.mangareader.init;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Crea la columna tsvector y los índices GIN del catálogo local, que Hibernate no sabe generar.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogSchemaInitializer {
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initializeSearchIndex() {
+        jdbcTemplate.execute("""
+                ALTER TABLE catalog_manga ADD COLUMN IF NOT EXISTS search_vector tsvector
+                GENERATED ALWAYS AS (to_tsvector('simple', search_text)) STORED
+                """);
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_catalog_manga_search ON catalog_manga USING GIN (search_vector)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_catalog_manga_languages ON catalog_manga USING GIN (available_languages)");
+    }
+}
@@ -0,0 +1,53 @@
+package com.jagt1806.mangareader.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.Map;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "catalog_manga")
+public class CatalogManga {
+    @Id
+    private String id;
+
+    private String title;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, String> titles;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, String> descriptions;
+
+    private String coverId;
+
+    private String coverFileName;
+
+    private String contentRating;
+
+    private String status;
+
+    @Column(columnDefinition = "text[]")
+    private String[] availableLanguages;
+
+    @Column(columnDefinition = "text[]")
+    private String[] tags;
+
+    @Column(columnDefinition = "text", nullable = false)
+    private String searchText;
+
+    private Instant updatedAt;
+
+    @Column(nullable = false)
+    private Instant syncedAt;
+}
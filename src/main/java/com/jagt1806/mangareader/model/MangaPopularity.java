@@ -0,0 +1,26 @@
+package com.jagt1806.mangareader.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "manga_popularity")
+public class MangaPopularity {
+    @Id
+    private String mangaId;
+
+    private long favorites;
+
+    private double trendingScore;
+
+    private Instant scoreUpdatedAt;
+}
@@ -0,0 +1,32 @@
+package com.jagt1806.mangareader.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "manga_watermarks")
+public class MangaWatermark {
+    @Id
+    private String mangaId;
+
+    private String chapterId;
+
+    private String chapter;
+
+    private String title;
+
+    private String translatedLanguage;
+
+    private Instant publishAt;
+
+    private Instant checkedAt;
+}
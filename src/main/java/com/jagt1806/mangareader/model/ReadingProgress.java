@@ -0,0 +1,39 @@
+package com.jagt1806.mangareader.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Posición de lectura por usuario y manga. Las escrituras llegan por lotes JDBC desde el buffer de
+ * ReadingProgressServiceImp, así que user_id es una columna simple y no una relación JPA.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "reading_progress", uniqueConstraints = {
+        @UniqueConstraint(name = "unique_user_manga_progress", columnNames = {"user_id", "manga_id"})
+})
+public class ReadingProgress {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "manga_id", nullable = false)
+    private String mangaId;
+
+    @Column(nullable = false)
+    private String chapterId;
+
+    private int page;
+
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.jagt1806.mangareader.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "sync_checkpoints")
+public class SyncCheckpoint {
+    @Id
+    private String name;
+
+    private String updatedAtCursor;
+
+    private int cursorOffset;
+
+    private boolean completed;
+
+    private Instant updatedAt;
+}
@@ -0,0 +1,17 @@
+package com.jagt1806.mangareader.repository;
+
+import com.jagt1806.mangareader.model.CacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface CacheEntryRepository extends JpaRepository<CacheEntry, String> {
+    @Modifying
+    @Query("DELETE FROM CacheEntry c WHERE c.staleAt < :date")
+    void deleteByStaleAtBefore(@Param("date") Instant date);
+}
@@ -0,0 +1,35 @@
+package com.jagt1806.mangareader.repository;
+
+import com.jagt1806.mangareader.model.CatalogManga;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CatalogMangaRepository extends JpaRepository<CatalogManga, String> {
+    @Query(value = """
+            SELECT * FROM catalog_manga c
+            WHERE (:query = '' OR c.search_vector @@ to_tsquery('simple', :query))
+              AND c.content_rating IN (:ratings)
+              AND c.available_languages && string_to_array(:languages, ',')
+            ORDER BY CASE WHEN :query = '' THEN 0 ELSE ts_rank(c.search_vector, to_tsquery('simple', :query)) END DESC,
+                     c.updated_at DESC, c.id
+            LIMIT :limit OFFSET :offset
+            """, nativeQuery = true)
+    List<CatalogManga> search(@Param("query") String query, @Param("ratings") List<String> ratings,
+                              @Param("languages") String languages, @Param("offset") int offset, @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT count(*) FROM catalog_manga c
+            WHERE (:query = '' OR c.search_vector @@ to_tsquery('simple', :query))
+              AND c.content_rating IN (:ratings)
+              AND c.available_languages && string_to_array(:languages, ',')
+            """, nativeQuery = true)
+    long countSearch(@Param("query") String query, @Param("ratings") List<String> ratings, @Param("languages") String languages);
+
+    @Query("SELECT c.id, c.contentRating, c.status, c.availableLanguages, c.tags FROM CatalogManga c ORDER BY c.updatedAt DESC NULLS LAST, c.id")
+    List<Object[]> findFacetRows();
+}
@@ -3,7 +3,11 @@ package com.jagt1806.mangareader.repository;
 import com.jagt1806.mangareader.model.Favorites;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,9 +18,23 @@ public interface FavoritesRepository extends JpaRepository<Favorites, Long> {
 
   Optional<List<Favorites>> findAllByUserId_Id(Long userIdId, Pageable pageable);
 
+  List<Favorites> findAllByUserId_Id(Long userIdId);
+
   long countFavoritesByUserId_Id(Long userIdId);
 
-  void deleteByUserId_IdAndMangaId(Long userIdId, String mangaId);
+  @Transactional
+  long deleteByUserId_IdAndMangaId(Long userIdId, String mangaId);
 
   Boolean existsByUserId_IdAndMangaId(Long userIdId, String mangaId);
+
+  @Query("SELECT DISTINCT f.mangaId FROM Favorites f")
+  List<String> findDistinctMangaIds();
+
+  @Query("SELECT f.mangaId, COUNT(f) FROM Favorites f GROUP BY f.mangaId")
+  List<Object[]> countGroupByMangaId();
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE Favorites f SET f.urlImage = :urlImage WHERE f.mangaId = :mangaId AND (f.urlImage IS NULL OR f.urlImage NOT LIKE CONCAT('%/', :fileName, '%'))")
+  int updateCoverByMangaId(@Param("mangaId") String mangaId, @Param("fileName") String fileName, @Param("urlImage") String urlImage);
 }
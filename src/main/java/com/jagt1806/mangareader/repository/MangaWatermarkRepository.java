@@ -0,0 +1,9 @@
+package com.jagt1806.mangareader.repository;
+
+import com.jagt1806.mangareader.model.MangaWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MangaWatermarkRepository extends JpaRepository<MangaWatermark, String> {
+}
@@ -0,0 +1,19 @@
+package com.jagt1806.mangareader.repository;
+
+import com.jagt1806.mangareader.model.ReadingProgress;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReadingProgressRepository extends JpaRepository<ReadingProgress, Long> {
+  List<ReadingProgress> findAllByUserId(Long userId);
+
+  Optional<ReadingProgress> findByUserIdAndMangaId(Long userId, String mangaId);
+
+  @Transactional
+  void deleteAllByUserId(Long userId);
+}
@@ -0,0 +1,17 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.model.CatalogManga;
+
+import java.util.List;
+
+public interface CatalogService {
+    boolean isReady();
+
+    List<CatalogManga> search(String title, int offset, int limit, List<String> contentRating, List<String> language);
+
+    long count(String title, List<String> contentRating, List<String> language);
+
+    List<CatalogManga> findByIds(List<String> ids);
+
+    void sync();
+}
@@ -0,0 +1,16 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.model.MangaWatermark;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+
+public interface ChapterEventService {
+    SseEmitter subscribe(Long userId);
+
+    void follow(Long userId, String mangaId);
+
+    void unfollow(Long userId, String mangaId);
+
+    void publish(Collection<MangaWatermark> watermarks);
+}
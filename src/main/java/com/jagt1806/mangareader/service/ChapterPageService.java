@@ -0,0 +1,10 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.dto.api.Chapter;
+import com.jagt1806.mangareader.dto.manga.ChapterPageDTO;
+
+public interface ChapterPageService {
+    void registerChapter(String chapterId, Chapter chapter);
+
+    ChapterPageDTO getPage(String chapterId, int page, boolean dataSaver);
+}
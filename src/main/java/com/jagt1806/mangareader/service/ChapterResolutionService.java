@@ -0,0 +1,11 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.dto.manga.ChapterResolutionDTO;
+
+public interface ChapterResolutionService {
+    ChapterResolutionDTO resolve(String chapterId);
+
+    ChapterResolutionDTO prefetch(String chapterId);
+
+    boolean isCached(String chapterId);
+}
@@ -0,0 +1,7 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.dto.manga.CoverDTO;
+
+public interface CoverService {
+    CoverDTO getCover(String mangaId, int width);
+}
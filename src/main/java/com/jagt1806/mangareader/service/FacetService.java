@@ -0,0 +1,17 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.dto.manga.FacetResultDTO;
+
+import java.util.List;
+import java.util.Map;
+
+public interface FacetService {
+    String TAG = "tag";
+    String RATING = "rating";
+    String STATUS = "status";
+    String LANGUAGE = "language";
+
+    FacetResultDTO search(Map<String, List<String>> filters, List<String> allowedRatings, int offset, int limit);
+
+    void rebuild();
+}
@@ -1,13 +1,21 @@
 package com.jagt1806.mangareader.service;
 
 import com.jagt1806.mangareader.http.request.favorite.FavoriteRequest;
+import com.jagt1806.mangareader.http.response.favorite.EnrichedFavoriteListResponse;
 import com.jagt1806.mangareader.http.response.favorite.FavoriteListResponse;
+import com.jagt1806.mangareader.http.response.favorite.FavoriteUpdateListResponse;
+
+import java.time.Instant;
 
 public interface FavoriteService {
     FavoriteListResponse getAllFavorites(int offset, int limit);
 
     FavoriteListResponse getFavoriteByUserId(Long userId, int offset, int limit);
 
+    EnrichedFavoriteListResponse getEnrichedFavoriteByUserId(Long userId, int offset, int limit, String language);
+
+    FavoriteUpdateListResponse getUpdatesByUserId(Long userId, Instant since);
+
     void addFavorite(Long id, FavoriteRequest request);
 
     void deleteFavoriteByIds(Long id, String mangaId);
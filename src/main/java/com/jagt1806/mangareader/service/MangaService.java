@@ -1,16 +1,33 @@
 package com.jagt1806.mangareader.service;
 
+import com.jagt1806.mangareader.dto.manga.FeedMangaDTO;
 import com.jagt1806.mangareader.http.response.manga.ChapterMangaResponse;
+import com.jagt1806.mangareader.http.response.manga.FacetedMangaListResponse;
 import com.jagt1806.mangareader.http.response.manga.FeedMangaResponse;
+import com.jagt1806.mangareader.http.response.manga.MangaBatchResponse;
 import com.jagt1806.mangareader.http.response.manga.MangaListResponse;
 import com.jagt1806.mangareader.http.response.manga.MangaResponse;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Consumer;
+
 public interface MangaService {
     MangaListResponse getMangas(String title, int offset, int limit, boolean nsfw, String language);
 
+    FacetedMangaListResponse getFacetedMangas(List<String> tags, List<String> ratings, List<String> status,
+                                              List<String> languages, boolean nsfw, int offset, int limit, String language);
+
     MangaResponse getMangaId(String id, String language);
 
+    MangaBatchResponse getMangasByIds(List<String> ids, String language);
+
     FeedMangaResponse getFeed(String id, int offset, int limit, boolean nsfw, String language);
 
-    ChapterMangaResponse getChapter(String id);
-}
\ No newline at end of file
+    void streamFeed(String id, boolean nsfw, String language, Consumer<List<FeedMangaDTO>> consumer);
+
+    ChapterMangaResponse getChapter(String id, boolean proxy);
+
+    void streamChapterArchive(String id, boolean dataSaver, OutputStream out) throws IOException;
+}
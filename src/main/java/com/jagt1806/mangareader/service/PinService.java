@@ -0,0 +1,12 @@
+package com.jagt1806.mangareader.service;
+
+import java.nio.file.Path;
+import java.util.Optional;
+
+public interface PinService {
+    void acquire(String mangaId);
+
+    void release(String mangaId);
+
+    Optional<Path> findPage(String hash, String type, String fileName);
+}
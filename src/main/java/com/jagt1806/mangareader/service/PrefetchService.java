@@ -0,0 +1,5 @@
+package com.jagt1806.mangareader.service;
+
+public interface PrefetchService {
+    void prefetchNext(String chapterId);
+}
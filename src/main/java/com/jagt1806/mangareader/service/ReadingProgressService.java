@@ -0,0 +1,17 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.dto.progress.ReadingProgressDTO;
+import com.jagt1806.mangareader.http.request.progress.ReadingProgressRequest;
+import com.jagt1806.mangareader.http.response.progress.ReadingProgressListResponse;
+
+public interface ReadingProgressService {
+    void reportProgress(Long userId, ReadingProgressRequest request);
+
+    ReadingProgressDTO getProgress(Long userId, String mangaId);
+
+    ReadingProgressListResponse getProgressByUserId(Long userId);
+
+    void deleteProgressByUserId(Long userId);
+
+    void flush();
+}
@@ -0,0 +1,9 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.http.response.manga.SimilarResponse;
+
+public interface SimilarService {
+    SimilarResponse getSimilar(String mangaId, int limit, boolean nsfw, String language);
+
+    void rebuild();
+}
@@ -0,0 +1,11 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.http.response.manga.SuggestResponse;
+
+import java.util.Collection;
+
+public interface SuggestService {
+    SuggestResponse suggest(String query, int limit, boolean nsfw);
+
+    void index(String mangaId, String title, Collection<String> titles, String contentRating);
+}
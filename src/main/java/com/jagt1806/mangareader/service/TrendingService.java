@@ -0,0 +1,12 @@
+package com.jagt1806.mangareader.service;
+
+import com.jagt1806.mangareader.http.response.manga.TrendingResponse;
+
+public interface TrendingService {
+    String TRENDING = "trending";
+    String FAVORITES = "favorites";
+
+    void recordFavorite(String mangaId, int delta);
+
+    TrendingResponse getTrending(String type, int limit, boolean nsfw, String language);
+}
@@ -0,0 +1,212 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.client.MangaClient;
+import com.jagt1806.mangareader.client.RequestLane;
+import com.jagt1806.mangareader.dto.api.MangaData;
+import com.jagt1806.mangareader.dto.api.MangaList;
+import com.jagt1806.mangareader.dto.api.attributes.CoverAttributes;
+import com.jagt1806.mangareader.dto.api.attributes.MangaAttributes;
+import com.jagt1806.mangareader.dto.api.attributes.MangaRelationship;
+import com.jagt1806.mangareader.dto.api.attributes.MangaTag;
+import com.jagt1806.mangareader.dto.api.attributes.TagAttributes;
+import com.jagt1806.mangareader.model.CatalogManga;
+import com.jagt1806.mangareader.model.SyncCheckpoint;
+import com.jagt1806.mangareader.repository.CatalogMangaRepository;
+import com.jagt1806.mangareader.repository.SyncCheckpointRepository;
+import com.jagt1806.mangareader.service.CatalogService;
+import com.jagt1806.mangareader.service.SuggestService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogServiceImp implements CatalogService {
+    private final MangaClient mangaClient;
+    private final CatalogMangaRepository catalogMangaRepository;
+    private final SyncCheckpointRepository syncCheckpointRepository;
+    private final SuggestService suggestService;
+
+    private static final String CHECKPOINT = "manga-catalog";
+    private static final String INCLUDES = "cover_art";
+    private static final List<String> ALL_CONTENT = List.of("safe", "suggestive", "erotica", "pornographic");
+    private static final DateTimeFormatter CURSOR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
+    @Value("${catalog.search.enabled:true}")
+    private boolean searchEnabled;
+    @Value("${catalog.sync.enabled:false}")
+    private boolean syncEnabled;
+    @Value("${catalog.sync.page-size:100}")
+    private int pageSize;
+    @Value("${catalog.sync.pages-per-run:50}")
+    private int pagesPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean ready;
+
+    @PostConstruct
+    public void init() {
+        ready = syncCheckpointRepository.findById(CHECKPOINT).map(SyncCheckpoint::isCompleted).orElse(false);
+    }
+
+    @Override
+    public boolean isReady() {
+        return searchEnabled && ready;
+    }
+
+    @Override
+    public List<CatalogManga> search(String title, int offset, int limit, List<String> contentRating, List<String> language) {
+        return catalogMangaRepository.search(toTsQuery(title), contentRating, String.join(",", language), offset, limit);
+    }
+
+    @Override
+    public long count(String title, List<String> contentRating, List<String> language) {
+        return catalogMangaRepository.countSearch(toTsQuery(title), contentRating, String.join(",", language));
+    }
+
+    @Override
+    public List<CatalogManga> findByIds(List<String> ids) {
+        Map<String, CatalogManga> found = catalogMangaRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(CatalogManga::getId, manga -> manga));
+        return ids.stream().map(found::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Recorre /manga ordenado por updatedAt guardando el cursor tras cada página, de modo que una
+     * sincronización interrumpida continúa donde se quedó en la siguiente ejecución.
+     */
+    @Override
+    public void sync() {
+        if(!running.compareAndSet(false, true)) return;
+        try {
+            SyncCheckpoint checkpoint = syncCheckpointRepository.findById(CHECKPOINT)
+                    .orElseGet(() -> new SyncCheckpoint(CHECKPOINT, null, 0, false, null));
+
+            for(int i = 0; i < pagesPerRun; i++) {
+                MangaList page = mangaClient.getMangaUpdates(
+                        INCLUDES, checkpoint.getUpdatedAtCursor(), "asc", ALL_CONTENT, checkpoint.getCursorOffset(), pageSize
+                );
+                List<MangaData> data = page.getData();
+                Instant now = Instant.now();
+                catalogMangaRepository.saveAll(data.stream().map(manga -> toCatalogManga(manga, now)).toList());
+
+                advance(checkpoint, data);
+                boolean caughtUp = data.size() < pageSize;
+                if(caughtUp) checkpoint.setCompleted(true);
+                checkpoint.setUpdatedAt(now);
+                syncCheckpointRepository.save(checkpoint);
+
+                if(caughtUp) {
+                    ready = true;
+                    break;
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.sync.interval:600000}", initialDelayString = "${catalog.sync.initial-delay:60000}")
+    public void scheduledSync() {
+        if(!syncEnabled) return;
+        try {
+            RequestLane.BACKGROUND.run(this::sync);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo sincronizar el catálogo local", e);
+        }
+    }
+
+    private void advance(SyncCheckpoint checkpoint, List<MangaData> data) {
+        if(data.isEmpty()) return;
+
+        String last = toCursor(data.getLast().getAttributes().getUpdatedAt());
+        if(last == null || last.equals(checkpoint.getUpdatedAtCursor())) {
+            // La página entera comparte el mismo segundo: solo se puede avanzar por offset
+            checkpoint.setCursorOffset(checkpoint.getCursorOffset() + data.size());
+            return;
+        }
+        checkpoint.setUpdatedAtCursor(last);
+        checkpoint.setCursorOffset(0);
+    }
+
+    private CatalogManga toCatalogManga(MangaData manga, Instant syncedAt) {
+        MangaAttributes attributes = manga.getAttributes();
+        Map<String, String> titles = Optional.ofNullable(attributes.getTitle()).orElse(Map.of());
+        List<Map<String, String>> altTitles = Optional.ofNullable(attributes.getAltTitles()).orElse(List.of());
+        List<String> languages = Optional.ofNullable(attributes.getAvailableTranslatedLanguages()).orElse(List.of());
+
+        String searchText = Stream.concat(titles.values().stream(), altTitles.stream().flatMap(alt -> alt.values().stream()))
+                .filter(Objects::nonNull)
+                .map(value -> value.toLowerCase(Locale.ROOT))
+                .distinct()
+                .collect(Collectors.joining(" "));
+
+        suggestService.index(manga.getId(), titles.get("en"),
+                Stream.concat(titles.values().stream(), altTitles.stream().flatMap(alt -> alt.values().stream())).toList(),
+                attributes.getContentRating());
+
+        MangaRelationship cover = Optional.ofNullable(manga.getRelationships()).orElse(List.of()).stream()
+                .filter(r -> INCLUDES.equals(r.getType()))
+                .findFirst()
+                .orElse(null);
+
+        return new CatalogManga(
+                manga.getId(),
+                titles.get("en"),
+                titles,
+                attributes.getDescription(),
+                cover == null ? null : cover.getId(),
+                Optional.ofNullable(cover).map(MangaRelationship::getAttributes).map(CoverAttributes::getFileName).orElse(null),
+                attributes.getContentRating(),
+                attributes.getStatus(),
+                languages.stream().filter(Objects::nonNull).toArray(String[]::new),
+                tags(attributes.getTags()),
+                searchText,
+                attributes.getUpdatedAt() == null ? null : OffsetDateTime.parse(attributes.getUpdatedAt()).toInstant(),
+                syncedAt
+        );
+    }
+
+    private String[] tags(List<MangaTag> tags) {
+        return Optional.ofNullable(tags).orElse(List.of()).stream()
+                .map(MangaTag::getAttributes)
+                .filter(Objects::nonNull)
+                .map(TagAttributes::getName)
+                .filter(Objects::nonNull)
+                .map(name -> name.get("en"))
+                .filter(Objects::nonNull)
+                .map(name -> name.toLowerCase(Locale.ROOT))
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    private String toCursor(String updatedAt) {
+        return updatedAt == null ? null : CURSOR_FORMAT.format(OffsetDateTime.parse(updatedAt));
+    }
+
+    /**
+     * Convierte el título normalizado en una consulta de prefijos ("one:* & piece:*"). Solo se
+     * conservan letras y dígitos, así que la entrada del usuario nunca llega como sintaxis de tsquery.
+     */
+    private String toTsQuery(String title) {
+        if(title == null) return "";
+        return Arrays.stream(title.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(token -> !token.isEmpty())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,228 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.favorite.ChapterEventDTO;
+import com.jagt1806.mangareader.model.Favorites;
+import com.jagt1806.mangareader.model.MangaWatermark;
+import com.jagt1806.mangareader.repository.FavoritesRepository;
+import com.jagt1806.mangareader.service.ChapterEventService;
+import com.jagt1806.mangareader.util.ThreadFactoryUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Registro de suscripciones SSE indexado por manga: cada conexión se apunta en los mangas favoritos
+ * de su usuario, de modo que publicar un capítulo nuevo solo recorre a quienes lo siguen. Las
+ * conexiones inactivas no ocupan hilo (servlet asíncrono); los envíos pasan por una cola acotada por
+ * suscriptor y un pool pequeño, y el cliente que no consume su cola se desconecta.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChapterEventServiceImp implements ChapterEventService {
+    private final FavoritesRepository favoritesRepository;
+    private final ThreadFactoryUtil threadFactoryUtil;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${events.timeout:30m}")
+    private Duration timeout;
+    @Value("${events.max-pending:32}")
+    private int maxPending;
+    @Value("${events.threads:4}")
+    private int threads;
+    @Value("${events.heartbeat:25000}")
+    private long heartbeatMillis;
+
+    private final ConcurrentHashMap<String, Set<Subscriber>> byManga = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService sender;
+    private ScheduledExecutorService heartbeats;
+    private Counter sent;
+    private Counter overflow;
+
+    private final class Subscriber {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final Set<String> mangaIds = ConcurrentHashMap.newKeySet();
+        private final Queue<SseEmitter.SseEventBuilder> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscriber(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            if(closed) return;
+            if(queued.incrementAndGet() > maxPending) {
+                overflow.increment();
+                close();
+                return;
+            }
+            queue.add(event);
+            if(draining.compareAndSet(false, true)) sender.execute(this::drain);
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while(!closed && (event = queue.poll()) != null) {
+                    queued.decrementAndGet();
+                    emitter.send(event);
+                    sent.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                close();
+            } finally {
+                draining.set(false);
+                if(!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) sender.execute(this::drain);
+            }
+        }
+
+        private void close() {
+            if(closed) return;
+            closed = true;
+            unregister(this);
+            emitter.complete();
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        sender = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactoryUtil.create("sse-"));
+        sent = meterRegistry.counter("manga.events", "result", "sent");
+        overflow = meterRegistry.counter("manga.events", "result", "overflow");
+        meterRegistry.gaugeCollectionSize("manga.events.subscribers", List.of(), subscribers);
+
+        // Hilo propio: en el planificador compartido una sincronización larga retrasaría el latido
+        // más allá del tiempo de inactividad de los proxies
+        heartbeats = new ScheduledThreadPoolExecutor(1, threadFactoryUtil.create("sse-heartbeat-"));
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        subscribers.forEach(Subscriber::close);
+        sender.shutdownNow();
+    }
+
+    @Override
+    public SseEmitter subscribe(Long userId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(userId, emitter);
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        subscribers.add(subscriber);
+        addTo(byUser, userId, subscriber);
+        if(subscriber.closed) {
+            subscribers.remove(subscriber);
+            removeFrom(byUser, userId, subscriber);
+        }
+        favoritesRepository.findAllByUserId_Id(userId).stream()
+                .map(Favorites::getMangaId)
+                .forEach(mangaId -> register(subscriber, mangaId));
+
+        subscriber.offer(SseEmitter.event().name("ready").data(subscriber.mangaIds.size()));
+        return emitter;
+    }
+
+    @Override
+    public void follow(Long userId, String mangaId) {
+        byUser.getOrDefault(userId, Set.of()).forEach(subscriber -> register(subscriber, mangaId));
+    }
+
+    @Override
+    public void unfollow(Long userId, String mangaId) {
+        byUser.getOrDefault(userId, Set.of()).forEach(subscriber -> {
+            subscriber.mangaIds.remove(mangaId);
+            removeFrom(byManga, mangaId, subscriber);
+        });
+    }
+
+    @Override
+    public void publish(Collection<MangaWatermark> watermarks) {
+        for(MangaWatermark watermark : watermarks) {
+            Set<Subscriber> followers = byManga.get(watermark.getMangaId());
+            if(followers == null || followers.isEmpty()) continue;
+
+            ChapterEventDTO payload = new ChapterEventDTO(
+                    watermark.getMangaId(),
+                    watermark.getChapterId(),
+                    watermark.getChapter(),
+                    watermark.getTranslatedLanguage(),
+                    watermark.getPublishAt()
+            );
+            followers.forEach(subscriber -> subscriber.offer(
+                    SseEmitter.event().name("chapter").id(watermark.getChapterId()).data(payload)
+            ));
+        }
+    }
+
+    /**
+     * Los proxies suelen cortar conexiones sin tráfico: un comentario periódico las mantiene vivas y
+     * además detecta los clientes que ya se fueron.
+     */
+    private void heartbeat() {
+        try {
+            subscribers.forEach(subscriber -> subscriber.offer(SseEmitter.event().comment("heartbeat")));
+        } catch (RuntimeException e) {
+            // Una excepción cancelaría las siguientes ejecuciones de scheduleWithFixedDelay
+            log.warn("No se pudo enviar el latido SSE", e);
+        }
+    }
+
+    private void register(Subscriber subscriber, String mangaId) {
+        if(subscriber.closed) return;
+        subscriber.mangaIds.add(mangaId);
+        addTo(byManga, mangaId, subscriber);
+        // Si close() corrió entre la comprobación y el alta, puede no haber visto este manga
+        if(subscriber.closed) removeFrom(byManga, mangaId, subscriber);
+    }
+
+    private void unregister(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.remove(subscriber);
+        subscriber.mangaIds.forEach(mangaId -> removeFrom(byManga, mangaId, subscriber));
+        removeFrom(byUser, subscriber.userId, subscriber);
+    }
+
+    // compute en lugar de computeIfAbsent(...).add: el alta y la baja del último suscriptor no pueden cruzarse
+    private <K> void addTo(ConcurrentHashMap<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        index.compute(key, (ignored, set) -> {
+            Set<Subscriber> target = set == null ? ConcurrentHashMap.newKeySet() : set;
+            target.add(subscriber);
+            return target;
+        });
+    }
+
+    private <K> void removeFrom(ConcurrentHashMap<K, Set<Subscriber>> index, K key, Subscriber subscriber) {
+        index.computeIfPresent(key, (ignored, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+}
@@ -0,0 +1,99 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagt1806.mangareader.cache.DiskLruCache;
+import com.jagt1806.mangareader.client.ImageClient;
+import com.jagt1806.mangareader.client.SingleFlight;
+import com.jagt1806.mangareader.dto.api.Chapter;
+import com.jagt1806.mangareader.dto.api.attributes.ChapterAttributes;
+import com.jagt1806.mangareader.dto.manga.ChapterPageDTO;
+import com.jagt1806.mangareader.exceptions.PageNotFoundException;
+import com.jagt1806.mangareader.service.ChapterPageService;
+import com.jagt1806.mangareader.service.ChapterResolutionService;
+import com.jagt1806.mangareader.service.PinService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class ChapterPageServiceImp implements ChapterPageService {
+    private final ChapterResolutionService chapterResolutionService;
+    private final ImageClient imageClient;
+    private final PinService pinService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.pages.dir:${java.io.tmpdir}/manga-reader/pages}")
+    private String pagesDir;
+    @Value("${cache.pages.max-size:2GB}")
+    private DataSize pagesMaxSize;
+
+    private final Cache<String, ChapterAttributes> manifests = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterAccess(Duration.ofHours(24))
+            .build();
+    private final Cache<String, String> servers = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofMinutes(5))
+            .build();
+
+    private DiskLruCache pageCache;
+    private SingleFlight<String, Path> downloads;
+
+    @PostConstruct
+    public void init() {
+        pageCache = new DiskLruCache(Path.of(pagesDir), pagesMaxSize.toBytes());
+        downloads = new SingleFlight<>(meterRegistry, "chapterPage");
+        meterRegistry.gauge("manga.pages.cache.bytes", pageCache, DiskLruCache::size);
+    }
+
+    @Override
+    public void registerChapter(String chapterId, Chapter chapter) {
+        manifests.put(chapterId, chapter.getChapter());
+        servers.put(chapterId, chapter.getBaseUrl());
+    }
+
+    @Override
+    public ChapterPageDTO getPage(String chapterId, int page, boolean dataSaver) {
+        ChapterAttributes attributes = manifests.getIfPresent(chapterId);
+        if(attributes == null) {
+            Chapter chapter = chapterResolutionService.resolve(chapterId).getChapter();
+            registerChapter(chapterId, chapter);
+            attributes = chapter.getChapter();
+        }
+
+        List<String> files = dataSaver ? attributes.getDataSaver() : attributes.getData();
+        if(page < 0 || page >= files.size()) throw new PageNotFoundException(null);
+
+        String type = dataSaver ? "data-saver" : "data";
+        String fileName = files.get(page);
+        String key = String.join("/", attributes.getHash(), type, fileName);
+
+        Optional<Path> cached = pinService.findPage(attributes.getHash(), type, fileName).or(() -> pageCache.get(key));
+        Path file = cached.isPresent() ? cached.get() : download(chapterId, key, type, attributes.getHash(), fileName);
+
+        return new ChapterPageDTO(file, fileName, file.toFile().length(), "\"" + attributes.getHash() + "-" + fileName + "\"");
+    }
+
+    private Path download(String chapterId, String key, String type, String hash, String fileName) {
+        return downloads.execute(key, () -> pageCache.get(key).orElseGet(() -> {
+            String baseUrl = servers.getIfPresent(chapterId);
+            if(baseUrl == null) {
+                Chapter chapter = chapterResolutionService.resolve(chapterId).getChapter();
+                registerChapter(chapterId, chapter);
+                baseUrl = chapter.getBaseUrl();
+            }
+            String url = String.format("%s/%s/%s/%s", baseUrl, type, hash, fileName);
+            return pageCache.put(key, target -> imageClient.download(url, target));
+        }));
+    }
+}
@@ -0,0 +1,160 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.jagt1806.mangareader.cache.CallerLoads;
+import com.jagt1806.mangareader.client.MangaClient;
+import com.jagt1806.mangareader.client.RequestLane;
+import com.jagt1806.mangareader.dto.api.Chapter;
+import com.jagt1806.mangareader.dto.api.attributes.ChapterAttributes;
+import com.jagt1806.mangareader.dto.manga.ChapterResolutionDTO;
+import com.jagt1806.mangareader.http.response.manga.ChapterMangaResponse;
+import com.jagt1806.mangareader.service.ChapterResolutionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+
+/**
+ * Única caché de resoluciones at-home: la usan la lectura de capítulos, el proxy de páginas y la
+ * precarga, así que un capítulo se resuelve una sola vez aunque llegue por varios caminos.
+ */
+@Service
+@RequiredArgsConstructor
+public class ChapterResolutionServiceImp implements ChapterResolutionService {
+    private final MangaClient mangaClient;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cache.chapters.ttl:10m}")
+    private Duration chapterTtl;
+    @Value("${cache.chapters.refresh:7m}")
+    private Duration chapterRefresh;
+    @Value("${cache.chapters.size:10000}")
+    private long chapterSize;
+    @Value("${cache.chapters.refresh-min-reads:2}")
+    private long refreshMinReads;
+    @Value("${prefetch.ttl:5m}")
+    private Duration prefetchTtl;
+
+    private AsyncLoadingCache<String, ChapterResolutionDTO> chapters;
+    // Capítulos cargados por la precarga que aún nadie ha leído, solo para medir aciertos y desperdicio
+    private Cache<String, Boolean> prefetched;
+    // Lecturas de cada capítulo desde su última carga, para refrescar solo los que se siguen leyendo
+    private Cache<String, LongAdder> reads;
+    private Counter hits;
+    private Counter waste;
+
+    /**
+     * Las resoluciones de at-home valen unos 15 minutos: se guardan 10 y, si el capítulo se sigue
+     * leyendo, Caffeine las refresca en segundo plano a partir de los 7 sin bloquear al lector. Solo
+     * se refrescan las que han tenido al menos cache.chapters.refresh-min-reads lecturas desde la
+     * última carga; las demás se retiran en lugar de gastar una llamada a at-home, y si alguien vuelve
+     * a leerlas se cargan de nuevo. La caché es asíncrona: la primera carga la hace el propio lector
+     * fuera del cerrojo del mapa (CallerLoads) y los refrescos van al pool común en el carril de segundo plano.
+     */
+    @PostConstruct
+    public void init() {
+        hits = meterRegistry.counter("manga.prefetch", "result", "hit");
+        waste = meterRegistry.counter("manga.prefetch", "result", "waste");
+
+        chapters = Caffeine.newBuilder()
+                .maximumSize(chapterSize)
+                .expireAfterWrite(chapterTtl)
+                .refreshAfterWrite(chapterRefresh)
+                .executor(command -> ForkJoinPool.commonPool().execute(() -> RequestLane.BACKGROUND.run(command)))
+                .recordStats()
+                .buildAsync(new CacheLoader<String, ChapterResolutionDTO>() {
+                    @Override
+                    public ChapterResolutionDTO load(String key) {
+                        return ChapterResolutionServiceImp.this.load(key);
+                    }
+
+                    @Override
+                    public ChapterResolutionDTO reload(String key, ChapterResolutionDTO oldValue) {
+                        // Devolver null retira la entrada
+                        LongAdder count = reads.asMap().remove(key);
+                        return count != null && count.sum() >= refreshMinReads ? load(key) : null;
+                    }
+                });
+        CaffeineCacheMetrics.monitor(meterRegistry, chapters.synchronous(), "manga.chapters");
+
+        prefetched = Caffeine.newBuilder()
+                .maximumSize(5_000)
+                .expireAfterWrite(prefetchTtl)
+                .removalListener((String key, Boolean value, RemovalCause cause) -> {
+                    if(cause.wasEvicted()) waste.increment();
+                })
+                .build();
+
+        reads = Caffeine.newBuilder()
+                .maximumSize(chapterSize)
+                .expireAfterAccess(chapterTtl)
+                .build();
+    }
+
+    @Override
+    public ChapterResolutionDTO resolve(String chapterId) {
+        reads.get(chapterId, key -> new LongAdder()).increment();
+        ChapterResolutionDTO resolution = CallerLoads.get(chapters, chapterId, this::load);
+        if(prefetched.asMap().remove(chapterId) != null) hits.increment();
+        return resolution;
+    }
+
+    @Override
+    public ChapterResolutionDTO prefetch(String chapterId) {
+        return CallerLoads.get(chapters, chapterId, key -> {
+            ChapterResolutionDTO resolution = load(key);
+            prefetched.put(key, Boolean.TRUE);
+            return resolution;
+        });
+    }
+
+    /**
+     * Incluye las cargas en curso y no cuenta como consulta en las estadísticas de la caché.
+     */
+    @Override
+    public boolean isCached(String chapterId) {
+        return chapters.asMap().containsKey(chapterId);
+    }
+
+    private ChapterResolutionDTO load(String id) {
+        Chapter apiResponse = mangaClient.getAtHomeServerChapterId(id);
+        String baseUrl = apiResponse.getBaseUrl();
+        ChapterAttributes attributes = apiResponse.getChapter();
+        String hash = attributes.getHash();
+
+        return new ChapterResolutionDTO(
+                apiResponse,
+                new ChapterMangaResponse(
+                        buildUrl(baseUrl, hash, attributes.getData(), "data"),
+                        buildUrl(baseUrl, hash, attributes.getDataSaver(), "data-saver")
+                ),
+                new ChapterMangaResponse(
+                        buildProxyUrl(id, attributes.getData(), false),
+                        buildProxyUrl(id, attributes.getDataSaver(), true)
+                )
+        );
+    }
+
+    private List<String> buildUrl(String baseUrl, String hash, List<String> data, String type) {
+        return data.stream().map(img -> String.format("%s/%s/%s/%s", baseUrl, type, hash, img)).toList();
+    }
+
+    private List<String> buildProxyUrl(String id, List<String> data, boolean dataSaver) {
+        return IntStream.range(0, data.size())
+                .mapToObj(page -> String.format("/api/manga/chapter/%s/page/%d%s", id, page, dataSaver ? "?saver=true" : ""))
+                .toList();
+    }
+}
@@ -0,0 +1,193 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.client.MangaClient;
+import com.jagt1806.mangareader.client.RequestLane;
+import com.jagt1806.mangareader.dto.api.Feed;
+import com.jagt1806.mangareader.dto.api.attributes.FeedAttributes;
+import com.jagt1806.mangareader.dto.api.attributes.MangaRelationship;
+import com.jagt1806.mangareader.model.MangaWatermark;
+import com.jagt1806.mangareader.model.SyncCheckpoint;
+import com.jagt1806.mangareader.repository.FavoritesRepository;
+import com.jagt1806.mangareader.repository.MangaWatermarkRepository;
+import com.jagt1806.mangareader.repository.SyncCheckpointRepository;
+import com.jagt1806.mangareader.service.ChapterEventService;
+import com.jagt1806.mangareader.service.ChapterUpdateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChapterUpdateServiceImp implements ChapterUpdateService {
+    private final MangaClient mangaClient;
+    private final FavoritesRepository favoritesRepository;
+    private final MangaWatermarkRepository mangaWatermarkRepository;
+    private final SyncCheckpointRepository syncCheckpointRepository;
+    private final ChapterEventService chapterEventService;
+
+    private static final String CHECKPOINT = "chapter-updates";
+    private static final int PAGE_SIZE = 100;
+    // Los lanzamientos programados traen un publishAt futuro: ni se notifican ni mueven el cursor
+    private static final Byte NO_FUTURE_UPDATES = 0;
+    private static final List<String> ALL_CONTENT = List.of("safe", "suggestive", "erotica", "pornographic");
+    private static final DateTimeFormatter CURSOR_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss")
+            .withZone(ZoneOffset.UTC);
+
+    @Value("${updates.enabled:true}")
+    private boolean enabled;
+    @Value("${updates.languages:es,es-la,en}")
+    private List<String> languages;
+    @Value("${updates.pages-per-run:20}")
+    private int pagesPerRun;
+    @Value("${updates.seed-per-run:50}")
+    private int seedPerRun;
+    @Value("${updates.lookback:1h}")
+    private Duration lookback;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * Un ciclo cubre todos los favoritos con un único recorrido de /chapter ordenado por publishAt
+     * desde el último cursor, en lugar de una consulta de feed por manga y usuario. Los mangas que
+     * aún no tienen marca se siembran con su último capítulo publicado, unos pocos por ciclo.
+     */
+    @Override
+    public void poll() {
+        if(!running.compareAndSet(false, true)) return;
+        try {
+            Set<String> favorites = new HashSet<>(favoritesRepository.findDistinctMangaIds());
+            if(favorites.isEmpty()) return;
+
+            Map<String, MangaWatermark> watermarks = new HashMap<>();
+            mangaWatermarkRepository.findAllById(favorites).forEach(watermark -> watermarks.put(watermark.getMangaId(), watermark));
+
+            Instant now = Instant.now();
+            seed(favorites, watermarks, now);
+            scan(favorites, watermarks, now);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${updates.interval:300000}", initialDelayString = "${updates.initial-delay:60000}")
+    public void scheduledPoll() {
+        if(!enabled) return;
+        try {
+            RequestLane.BACKGROUND.run(this::poll);
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron consultar los capítulos nuevos de los favoritos", e);
+        }
+    }
+
+    private void seed(Set<String> favorites, Map<String, MangaWatermark> watermarks, Instant now) {
+        List<MangaWatermark> seeded = favorites.stream()
+                .filter(mangaId -> !watermarks.containsKey(mangaId))
+                .limit(seedPerRun)
+                .map(mangaId -> {
+                    List<Feed> latest = mangaClient.getChapterUpdates(mangaId, null, "desc", ALL_CONTENT, NO_FUTURE_UPDATES, languages, 0, 1).getData();
+                    MangaWatermark watermark = new MangaWatermark(mangaId, null, null, null, null, null, now);
+                    if(!latest.isEmpty() && !isFuture(latest.getFirst(), now)) apply(watermark, latest.getFirst());
+                    return watermark;
+                })
+                .toList();
+
+        seeded.forEach(watermark -> watermarks.put(watermark.getMangaId(), watermark));
+        mangaWatermarkRepository.saveAll(seeded);
+    }
+
+    private void scan(Set<String> favorites, Map<String, MangaWatermark> watermarks, Instant now) {
+        SyncCheckpoint checkpoint = syncCheckpointRepository.findById(CHECKPOINT)
+                .orElseGet(() -> new SyncCheckpoint(CHECKPOINT, CURSOR_FORMAT.format(now.minus(lookback)), 0, false, null));
+        if(checkpoint.getUpdatedAtCursor() != null && checkpoint.getUpdatedAtCursor().compareTo(CURSOR_FORMAT.format(now)) > 0) {
+            // Un cursor que quedó en el futuro saltaría todo lo publicado hasta entonces
+            checkpoint.setUpdatedAtCursor(CURSOR_FORMAT.format(now.minus(lookback)));
+            checkpoint.setCursorOffset(0);
+        }
+
+        Map<String, MangaWatermark> changed = new HashMap<>();
+        for(int i = 0; i < pagesPerRun; i++) {
+            List<Feed> data = mangaClient.getChapterUpdates(
+                    null, checkpoint.getUpdatedAtCursor(), "asc", ALL_CONTENT, NO_FUTURE_UPDATES, languages, checkpoint.getCursorOffset(), PAGE_SIZE
+            ).getData();
+            // Por si la API devolviera algún capítulo aún no publicado, la página se corta en "ahora"
+            List<Feed> published = data.stream().takeWhile(feed -> !isFuture(feed, now)).toList();
+
+            for(Feed feed : published) {
+                String mangaId = mangaId(feed);
+                MangaWatermark watermark = watermarks.get(mangaId);
+                if(watermark == null || !favorites.contains(mangaId) || !isNewer(feed, watermark)) continue;
+
+                apply(watermark, feed);
+                watermark.setCheckedAt(now);
+                changed.put(mangaId, watermark);
+            }
+
+            advance(checkpoint, published);
+            if(published.size() < PAGE_SIZE) break;
+        }
+
+        mangaWatermarkRepository.saveAll(changed.values());
+        chapterEventService.publish(changed.values());
+        checkpoint.setUpdatedAt(now);
+        syncCheckpointRepository.save(checkpoint);
+    }
+
+    private void advance(SyncCheckpoint checkpoint, List<Feed> data) {
+        if(data.isEmpty()) return;
+
+        String last = toCursor(data.getLast().getAttributes().getPublishAt());
+        if(last == null || last.equals(checkpoint.getUpdatedAtCursor())) {
+            // Todos los capítulos de la página comparten segundo: solo se puede avanzar por offset
+            checkpoint.setCursorOffset(checkpoint.getCursorOffset() + data.size());
+            return;
+        }
+        checkpoint.setUpdatedAtCursor(last);
+        checkpoint.setCursorOffset(0);
+    }
+
+    private void apply(MangaWatermark watermark, Feed feed) {
+        FeedAttributes attributes = feed.getAttributes();
+        watermark.setChapterId(feed.getId());
+        watermark.setChapter(attributes.getChapter());
+        watermark.setTitle(attributes.getTitle());
+        watermark.setTranslatedLanguage(attributes.getTranslatedLanguage());
+        watermark.setPublishAt(toInstant(attributes.getPublishAt()));
+    }
+
+    private boolean isNewer(Feed feed, MangaWatermark watermark) {
+        Instant publishAt = toInstant(feed.getAttributes().getPublishAt());
+        return publishAt != null && (watermark.getPublishAt() == null || publishAt.isAfter(watermark.getPublishAt()));
+    }
+
+    private boolean isFuture(Feed feed, Instant now) {
+        Instant publishAt = toInstant(feed.getAttributes().getPublishAt());
+        return publishAt != null && publishAt.isAfter(now);
+    }
+
+    private String mangaId(Feed feed) {
+        return Optional.ofNullable(feed.getRelationships()).orElse(List.of()).stream()
+                .filter(r -> "manga".equals(r.getType()))
+                .map(MangaRelationship::getId)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private Instant toInstant(String publishAt) {
+        return publishAt == null ? null : OffsetDateTime.parse(publishAt).toInstant();
+    }
+
+    private String toCursor(String publishAt) {
+        return publishAt == null ? null : CURSOR_FORMAT.format(OffsetDateTime.parse(publishAt));
+    }
+}
@@ -0,0 +1,173 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.cache.DiskLruCache;
+import com.jagt1806.mangareader.client.ImageClient;
+import com.jagt1806.mangareader.client.SingleFlight;
+import com.jagt1806.mangareader.dto.manga.CoverDTO;
+import com.jagt1806.mangareader.dto.manga.MangaDTO;
+import com.jagt1806.mangareader.exceptions.ImageFetchException;
+import com.jagt1806.mangareader.exceptions.CoverNotFoundException;
+import com.jagt1806.mangareader.service.CoverService;
+import com.jagt1806.mangareader.service.MangaService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CoverServiceImp implements CoverService {
+    private final MangaService mangaService;
+    private final ImageClient imageClient;
+    private final MeterRegistry meterRegistry;
+
+    private static final String VARIANT_EXTENSION = ".jpg";
+
+    @Value("${mangadex.covers.url:https://uploads.mangadex.org/covers}")
+    private String coversUrl;
+    @Value("${cache.covers.dir:${java.io.tmpdir}/manga-reader/covers}")
+    private String coversDir;
+    @Value("${cache.covers.max-size:512MB}")
+    private DataSize coversMaxSize;
+    @Value("${cache.covers.widths:128,256,512}")
+    private List<Integer> widths;
+    @Value("${cache.covers.resize-threads:2}")
+    private int resizeThreads;
+    @Value("${cache.covers.resize-queue:64}")
+    private int resizeQueue;
+
+    private int[] buckets;
+    private DiskLruCache coverCache;
+    private SingleFlight<String, Path> downloads;
+    private SingleFlight<String, Path> resizes;
+    private ThreadPoolExecutor resizeExecutor;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        buckets = widths.stream().mapToInt(Integer::intValue).filter(width -> width > 0).sorted().distinct().toArray();
+        coverCache = new DiskLruCache(Path.of(coversDir), coversMaxSize.toBytes());
+        downloads = new SingleFlight<>(meterRegistry, "cover");
+        resizes = new SingleFlight<>(meterRegistry, "coverResize");
+        rejected = meterRegistry.counter("manga.covers.resize.rejected");
+        meterRegistry.gauge("manga.covers.cache.bytes", coverCache, DiskLruCache::size);
+
+        // Redimensionar es trabajo de CPU: hilos de plataforma y un número fijo, aunque los virtuales estén activos
+        resizeExecutor = new ThreadPoolExecutor(resizeThreads, resizeThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(resizeQueue), new CustomizableThreadFactory("cover-resize-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resizeExecutor.shutdownNow();
+    }
+
+    @Override
+    public CoverDTO getCover(String mangaId, int width) {
+        MangaDTO manga = mangaService.getMangaId(mangaId, "en").getData();
+        if(manga.getFileName() == null) throw new CoverNotFoundException(mangaId);
+
+        String fileName = manga.getFileName();
+        String originalKey = String.join("/", mangaId, "original", fileName);
+        Path original = coverCache.get(originalKey).orElseGet(() -> download(originalKey, mangaId, fileName));
+
+        int bucket = bucket(width);
+        String variantKey = String.join("/", mangaId, "w" + bucket, fileName + VARIANT_EXTENSION);
+        Path variant = coverCache.get(variantKey).orElse(null);
+        if(variant == null) {
+            try {
+                variant = resizes.execute(variantKey, () -> coverCache.get(variantKey)
+                        .orElseGet(() -> submitResize(variantKey, original, bucket)));
+            } catch (RejectedExecutionException e) {
+                // Cola llena: se sirve el original sin guardarlo como variante para no saturar la CPU
+                rejected.increment();
+                return new CoverDTO(original, fileName, original.toFile().length(), etag(mangaId, fileName, "original"), false);
+            }
+        }
+
+        return new CoverDTO(variant, variantKey, variant.toFile().length(), etag(mangaId, fileName, "w" + bucket), true);
+    }
+
+    /**
+     * Redondea el ancho pedido al bucket más pequeño que lo cubre, para que la caché tenga pocas
+     * variantes por portada y los navegadores compartan las mismas URLs.
+     */
+    private int bucket(int width) {
+        for(int bucket : buckets) {
+            if(width <= bucket) return bucket;
+        }
+        return buckets[buckets.length - 1];
+    }
+
+    private Path download(String key, String mangaId, String fileName) {
+        return downloads.execute(key, () -> coverCache.get(key).orElseGet(() -> coverCache.put(key,
+                target -> imageClient.download(String.format("%s/%s/%s", coversUrl, mangaId, fileName), target))));
+    }
+
+    private Path submitResize(String key, Path original, int width) {
+        Future<Path> future = resizeExecutor.submit(() -> coverCache.put(key, target -> resize(original, target, width)));
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException runtime) throw runtime;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ImageFetchException(key);
+        }
+    }
+
+    private void resize(Path original, Path target, int width) {
+        try {
+            BufferedImage source = ImageIO.read(original.toFile());
+            if(source == null) throw new ImageFetchException(original.getFileName().toString());
+
+            if(source.getWidth() <= width && original.getFileName().toString().endsWith(VARIANT_EXTENSION)) {
+                Files.copy(original, target, StandardCopyOption.REPLACE_EXISTING);
+                return;
+            }
+
+            int targetWidth = Math.min(width, source.getWidth());
+            int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+            BufferedImage scaled = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = scaled.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                // Las portadas PNG con transparencia se aplanan sobre blanco al pasar a JPEG
+                graphics.drawImage(source, 0, 0, targetWidth, targetHeight, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+
+            if(!ImageIO.write(scaled, "jpg", target.toFile())) throw new ImageFetchException(target.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String etag(String mangaId, String fileName, String variant) {
+        return "\"" + mangaId + "-" + fileName + "-" + variant + "\"";
+    }
+}
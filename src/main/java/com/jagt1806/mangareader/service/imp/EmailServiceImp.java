@@ -2,16 +2,23 @@ package com.jagt1806.mangareader.service.imp;
 
 import com.jagt1806.mangareader.service.EmailService;
 import com.jagt1806.mangareader.util.MessageUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +28,20 @@ public class EmailServiceImp implements EmailService {
 
     @Value("${spring.mail.username}")
     private String fromEmail;
+    @Value("${email.threads:2}")
+    private int threads;
+
+    private ExecutorService mailExecutor;
+
+    @PostConstruct
+    public void init() {
+        mailExecutor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("mail-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        mailExecutor.shutdown();
+    }
 
     @Override
     public void sendVerificationCode(String to, String code, LocalDateTime expiryDate) throws MessagingException {
@@ -40,7 +61,7 @@ public class EmailServiceImp implements EmailService {
         helper.setSubject(subject);
         helper.setText(content, true);
 
-        mailSender.send(message);
+        send(message);
     }
 
     @Override
@@ -61,7 +82,28 @@ public class EmailServiceImp implements EmailService {
         helper.setSubject(subject);
         helper.setText(content, true);
 
-        mailSender.send(message);
+        send(message);
+    }
+
+    /**
+     * Jakarta Mail sincroniza el transporte SMTP con synchronized, lo que fijaría el hilo virtual
+     * durante toda la conexión. Desde un hilo virtual el envío se delega a un hilo de plataforma.
+     */
+    private void send(MimeMessage message) {
+        if(!Thread.currentThread().isVirtual()) {
+            mailSender.send(message);
+            return;
+        }
+
+        try {
+            mailExecutor.submit(() -> mailSender.send(message)).get();
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new MailSendException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MailSendException(e.getMessage(), e);
+        }
     }
 
     private String generateHtmlContent(String body) {
@@ -0,0 +1,143 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.manga.FacetResultDTO;
+import com.jagt1806.mangareader.repository.CatalogMangaRepository;
+import com.jagt1806.mangareader.service.FacetService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Índice de facetas sobre el catálogo local. Cada manga recibe un número de documento denso (en orden
+ * de updatedAt descendente, que es también el orden de los resultados) y cada valor de faceta guarda
+ * el conjunto de documentos como bitmap. Filtrar es OR dentro de un campo y AND entre campos; el
+ * recuento de cada campo se calcula con los filtros de los demás campos, así el cliente sabe cuántos
+ * resultados tendría al cambiar su selección. Las valoraciones permitidas (según nsfw) son un filtro
+ * base que se aplica siempre, también al recuento del propio campo de valoración: una selección
+ * explícita solo puede estrechar ese conjunto, nunca ampliarlo.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FacetServiceImp implements FacetService {
+    private final CatalogMangaRepository catalogMangaRepository;
+    private final MeterRegistry meterRegistry;
+
+    private static final List<String> FIELDS = List.of(TAG, RATING, STATUS, LANGUAGE);
+
+    private record Snapshot(String[] ids, Map<String, Map<String, BitSet>> postings) {
+        private static final Snapshot EMPTY = new Snapshot(new String[0], Map.of());
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private Timer queries;
+
+    @PostConstruct
+    public void init() {
+        queries = Timer.builder("manga.facets.query").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        meterRegistry.gauge("manga.facets.documents", this, service -> service.snapshot.ids().length);
+    }
+
+    @Override
+    public FacetResultDTO search(Map<String, List<String>> filters, List<String> allowedRatings, int offset, int limit) {
+        return queries.record(() -> {
+            Snapshot current = snapshot;
+            BitSet allowed = union(current, RATING, allowedRatings);
+            Map<String, BitSet> selected = new HashMap<>();
+            for(String field : FIELDS) {
+                List<String> values = filters.getOrDefault(field, List.of());
+                if(!values.isEmpty()) selected.put(field, union(current, field, values));
+            }
+
+            BitSet result = intersect(allowed, selected, null);
+            Map<String, Map<String, Integer>> facets = new LinkedHashMap<>();
+            for(String field : FIELDS) {
+                BitSet base = selected.containsKey(field) ? intersect(allowed, selected, field) : result;
+                Map<String, Integer> counts = new TreeMap<>();
+                current.postings().getOrDefault(field, Map.of()).forEach((value, docs) -> {
+                    int count = base.intersects(docs) ? cardinalityAnd(base, docs) : 0;
+                    if(count > 0) counts.put(value, count);
+                });
+                facets.put(field, counts);
+            }
+
+            List<String> page = new ArrayList<>(limit);
+            int skipped = 0;
+            for(int doc = result.nextSetBit(0); doc >= 0 && page.size() < limit; doc = result.nextSetBit(doc + 1)) {
+                if(skipped++ < offset) continue;
+                page.add(current.ids()[doc]);
+            }
+
+            return new FacetResultDTO(page, result.cardinality(), facets);
+        });
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${facets.rebuild-interval:600000}", initialDelayString = "${facets.rebuild-interval:600000}")
+    public void rebuild() {
+        try {
+            List<Object[]> rows = catalogMangaRepository.findFacetRows();
+            String[] ids = new String[rows.size()];
+            Map<String, Map<String, BitSet>> postings = new HashMap<>();
+            FIELDS.forEach(field -> postings.put(field, new HashMap<>()));
+
+            for(int doc = 0; doc < rows.size(); doc++) {
+                Object[] row = rows.get(doc);
+                ids[doc] = (String) row[0];
+                add(postings.get(RATING), doc, (String) row[1]);
+                add(postings.get(STATUS), doc, (String) row[2]);
+                for(String language : Optional.ofNullable((String[]) row[3]).orElse(new String[0])) add(postings.get(LANGUAGE), doc, language);
+                for(String tag : Optional.ofNullable((String[]) row[4]).orElse(new String[0])) add(postings.get(TAG), doc, tag);
+            }
+
+            snapshot = new Snapshot(ids, postings);
+        } catch (DataAccessException e) {
+            log.warn("No se pudo reconstruir el índice de facetas", e);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialRebuild() {
+        rebuild();
+    }
+
+    private void add(Map<String, BitSet> field, int doc, String value) {
+        if(value == null) return;
+        field.computeIfAbsent(value, key -> new BitSet()).set(doc);
+    }
+
+    private BitSet union(Snapshot current, String field, List<String> values) {
+        BitSet union = new BitSet();
+        Map<String, BitSet> postings = current.postings().getOrDefault(field, Map.of());
+        for(String value : values) {
+            BitSet docs = postings.get(value.toLowerCase(Locale.ROOT));
+            if(docs == null) docs = postings.get(value);
+            if(docs != null) union.or(docs);
+        }
+        return union;
+    }
+
+    private BitSet intersect(BitSet allowed, Map<String, BitSet> selected, String exclude) {
+        BitSet result = (BitSet) allowed.clone();
+        selected.forEach((field, docs) -> {
+            if(!field.equals(exclude)) result.and(docs);
+        });
+        return result;
+    }
+
+    private int cardinalityAnd(BitSet base, BitSet docs) {
+        // Se clona el posting, que nunca es más largo que el conjunto base
+        BitSet both = (BitSet) docs.clone();
+        both.and(base);
+        return both.cardinality();
+    }
+}
@@ -1,31 +1,90 @@
 package com.jagt1806.mangareader.service.imp;
 
+import com.jagt1806.mangareader.dto.favorite.EnrichedFavoriteDTO;
 import com.jagt1806.mangareader.dto.favorite.FavoriteDTO;
+import com.jagt1806.mangareader.dto.favorite.FavoriteUpdateDTO;
+import com.jagt1806.mangareader.dto.manga.MangaDTO;
 import com.jagt1806.mangareader.exceptions.FavoriteNotFoundException;
 import com.jagt1806.mangareader.exceptions.UniqueException;
 import com.jagt1806.mangareader.exceptions.UserNotFoundException;
 import com.jagt1806.mangareader.http.request.favorite.FavoriteRequest;
+import com.jagt1806.mangareader.http.response.favorite.EnrichedFavoriteListResponse;
 import com.jagt1806.mangareader.http.response.favorite.FavoriteListResponse;
+import com.jagt1806.mangareader.http.response.favorite.FavoriteUpdateListResponse;
 import com.jagt1806.mangareader.model.Favorites;
+import com.jagt1806.mangareader.model.MangaWatermark;
 import com.jagt1806.mangareader.model.Users;
 import com.jagt1806.mangareader.repository.FavoritesRepository;
+import com.jagt1806.mangareader.repository.MangaWatermarkRepository;
 import com.jagt1806.mangareader.repository.UsersRepository;
+import com.jagt1806.mangareader.service.ChapterEventService;
 import com.jagt1806.mangareader.service.FavoriteService;
+import com.jagt1806.mangareader.service.MangaService;
+import com.jagt1806.mangareader.service.PinService;
+import com.jagt1806.mangareader.service.SuggestService;
+import com.jagt1806.mangareader.service.TrendingService;
 import com.jagt1806.mangareader.util.MessageUtil;
+import com.jagt1806.mangareader.util.ThreadFactoryUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FavoriteServiceImp implements FavoriteService {
     private final FavoritesRepository favoritesRepository;
+    private final MangaWatermarkRepository mangaWatermarkRepository;
     private final UsersRepository usersRepository;
     private final MessageUtil messageUtil;
+    private final MangaService mangaService;
+    private final PinService pinService;
+    private final ChapterEventService chapterEventService;
+    private final SuggestService suggestService;
+    private final TrendingService trendingService;
+    private final ThreadFactoryUtil threadFactoryUtil;
+
+    private static final Pattern THUMBNAIL = Pattern.compile("\\.(256|512)\\.jpg$");
+
+    @Value("${mangadex.covers.url:https://uploads.mangadex.org/covers}")
+    private String coversUrl;
+    @Value("${favorites.snapshot.queue:256}")
+    private int snapshotQueue;
+
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor snapshotExecutor;
+
+    @PostConstruct
+    public void init() {
+        snapshotExecutor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(snapshotQueue), threadFactoryUtil.create("favorite-snapshot-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshotExecutor.shutdown();
+    }
 
     @Override
     public FavoriteListResponse getAllFavorites(int offset, int limit) {
@@ -49,6 +108,61 @@ public class FavoriteServiceImp implements FavoriteService {
         return new FavoriteListResponse(favorites, offset, limit, favoritesRepository.countFavoritesByUserId_Id(userId));
     }
 
+    @Override
+    public EnrichedFavoriteListResponse getEnrichedFavoriteByUserId(Long userId, int offset, int limit, String language) {
+        Pageable pageable = PageRequest.of(offset, limit);
+        List<Favorites> favorites = favoritesRepository.findAllByUserId_Id(userId, pageable)
+                .orElseThrow(() -> new FavoriteNotFoundException(messageUtil.getMessage("favorites.user.not.found")));
+
+        Map<String, MangaDTO> mangas = findMangas(favorites.stream().map(Favorites::getMangaId).distinct().toList(), language);
+        List<EnrichedFavoriteDTO> data = favorites.stream()
+                .map(favorite -> {
+                    MangaDTO manga = mangas.get(favorite.getMangaId());
+                    if(manga != null) refreshSnapshot(favorite, manga);
+                    return new EnrichedFavoriteDTO(
+                            favorite.getId(),
+                            favorite.getMangaId(),
+                            favorite.getUserId().getId(),
+                            favorite.getNameManga(),
+                            favorite.getUrlImage(),
+                            manga
+                    );
+                })
+                .toList();
+
+        return new EnrichedFavoriteListResponse(data, offset, limit, favoritesRepository.countFavoritesByUserId_Id(userId));
+    }
+
+    /**
+     * Se responde solo con las marcas que mantiene el sondeo de capítulos nuevos, sin llamar a MangaDex.
+     */
+    @Override
+    public FavoriteUpdateListResponse getUpdatesByUserId(Long userId, Instant since) {
+        List<Favorites> favorites = favoritesRepository.findAllByUserId_Id(userId);
+        Map<String, MangaWatermark> watermarks = mangaWatermarkRepository.findAllById(
+                favorites.stream().map(Favorites::getMangaId).distinct().toList()
+        ).stream().collect(Collectors.toMap(MangaWatermark::getMangaId, watermark -> watermark));
+
+        List<FavoriteUpdateDTO> data = favorites.stream()
+                .map(favorite -> Map.entry(favorite, watermarks.getOrDefault(favorite.getMangaId(), new MangaWatermark())))
+                .filter(entry -> entry.getValue().getPublishAt() != null)
+                .filter(entry -> since == null || entry.getValue().getPublishAt().isAfter(since))
+                .sorted(Comparator.comparing((Map.Entry<Favorites, MangaWatermark> entry) -> entry.getValue().getPublishAt()).reversed())
+                .map(entry -> new FavoriteUpdateDTO(
+                        entry.getKey().getMangaId(),
+                        entry.getKey().getNameManga(),
+                        entry.getKey().getUrlImage(),
+                        entry.getValue().getChapterId(),
+                        entry.getValue().getChapter(),
+                        entry.getValue().getTitle(),
+                        entry.getValue().getTranslatedLanguage(),
+                        entry.getValue().getPublishAt()
+                ))
+                .toList();
+
+        return new FavoriteUpdateListResponse(data, since);
+    }
+
     @Override
     public void addFavorite(Long userId, FavoriteRequest request) {
         Users user = usersRepository.findById(userId)
@@ -58,6 +172,10 @@ public class FavoriteServiceImp implements FavoriteService {
 
         try {
             favoritesRepository.save(favorite);
+            pinService.acquire(request.getIdManga());
+            chapterEventService.follow(userId, request.getIdManga());
+            suggestService.index(request.getIdManga(), request.getNameManga(), List.of(), null);
+            trendingService.recordFavorite(request.getIdManga(), 1);
         } catch (DataIntegrityViolationException e) {
             if(e.getMessage().contains("unique_user_manga"))
                 throw new UniqueException("user.unique");
@@ -65,9 +183,17 @@ public class FavoriteServiceImp implements FavoriteService {
         }
     }
 
+    /**
+     * El borrado se confirma en su propia transacción (la del repositorio) antes de liberar el pin, dejar
+     * de seguir el manga y restar el favorito, así esos efectos no se aplican por un borrado que se revierte.
+     */
     @Override
     public void deleteFavoriteByIds(Long userId, String mangaId) {
-        favoritesRepository.deleteByUserId_IdAndMangaId(userId, mangaId);
+        if(favoritesRepository.deleteByUserId_IdAndMangaId(userId, mangaId) > 0) {
+            pinService.release(mangaId);
+            chapterEventService.unfollow(userId, mangaId);
+            trendingService.recordFavorite(mangaId, -1);
+        }
     }
 
     @Override
@@ -75,6 +201,57 @@ public class FavoriteServiceImp implements FavoriteService {
         return favoritesRepository.existsByUserId_IdAndMangaId(userId, mangaId);
     }
 
+    /**
+     * Si MangaDex no responde se devuelven solo los datos guardados: la lista de favoritos no debe
+     * fallar por la información enriquecida.
+     */
+    private Map<String, MangaDTO> findMangas(List<String> mangaIds, String language) {
+        if(mangaIds.isEmpty()) return Map.of();
+        try {
+            return mangaService.getMangasByIds(mangaIds, language).getData().stream()
+                    .collect(Collectors.toMap(MangaDTO::getId, Function.identity(), (first, second) -> first));
+        } catch (RuntimeException e) {
+            log.warn("No se pudieron enriquecer los favoritos", e);
+            return Map.of();
+        }
+    }
+
+    /**
+     * Solo se corrige la portada, y solo si el fichero guardado ya no es el actual de MangaDex. El
+     * nombre es el que eligió cada usuario (y el título de MangaDex depende del idioma de quien
+     * consulta), así que no se reescribe para todos los favoritos del manga.
+     */
+    private void refreshSnapshot(Favorites favorite, MangaDTO manga) {
+        String fileName = manga.getFileName();
+        if(fileName == null || Objects.equals(fileName, storedFileName(favorite.getUrlImage()))) return;
+
+        String mangaId = manga.getId();
+        String image = String.format("%s/%s/%s", coversUrl, mangaId, fileName);
+        if(!refreshing.add(mangaId)) return;
+        try {
+            snapshotExecutor.execute(() -> {
+                try {
+                    favoritesRepository.updateCoverByMangaId(mangaId, fileName, image);
+                } catch (RuntimeException e) {
+                    log.warn("No se pudo actualizar la copia de los favoritos del manga {}", mangaId, e);
+                } finally {
+                    refreshing.remove(mangaId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(mangaId);
+        }
+    }
+
+    /**
+     * Nombre del fichero de portada dentro de la URL guardada, sin el sufijo de miniatura (.256.jpg o .512.jpg).
+     */
+    private String storedFileName(String urlImage) {
+        if(urlImage == null) return null;
+        String last = urlImage.substring(urlImage.lastIndexOf('/') + 1);
+        return THUMBNAIL.matcher(last).replaceFirst("");
+    }
+
     private FavoriteDTO toFavoriteDTO(Favorites favorites) {
         return new FavoriteDTO(
                 favorites.getId(),
@@ -1,51 +1,178 @@
 package com.jagt1806.mangareader.service.imp;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagt1806.mangareader.cache.CallerLoads;
+import com.jagt1806.mangareader.cache.TieredCache;
+import com.jagt1806.mangareader.client.DecodeLanguage;
 import com.jagt1806.mangareader.client.MangaClient;
+import com.jagt1806.mangareader.client.RequestLane;
+import com.jagt1806.mangareader.client.StaleResponses;
 import com.jagt1806.mangareader.dto.api.attributes.*;
+import com.jagt1806.mangareader.dto.manga.ChapterPageDTO;
+import com.jagt1806.mangareader.dto.manga.ChapterResolutionDTO;
+import com.jagt1806.mangareader.dto.manga.FacetResultDTO;
 import com.jagt1806.mangareader.dto.manga.FeedMangaDTO;
 import com.jagt1806.mangareader.dto.manga.MangaDTO;
 import com.jagt1806.mangareader.dto.api.*;
 import com.jagt1806.mangareader.dto.manga.auxiliary.AuxFeedManga;
 import com.jagt1806.mangareader.http.response.manga.ChapterMangaResponse;
+import com.jagt1806.mangareader.http.response.manga.FacetedMangaListResponse;
 import com.jagt1806.mangareader.http.response.manga.FeedMangaResponse;
+import com.jagt1806.mangareader.http.response.manga.MangaBatchResponse;
 import com.jagt1806.mangareader.http.response.manga.MangaListResponse;
 import com.jagt1806.mangareader.http.response.manga.MangaResponse;
+import com.jagt1806.mangareader.model.CatalogManga;
+import com.jagt1806.mangareader.service.CatalogService;
+import com.jagt1806.mangareader.service.ChapterPageService;
+import com.jagt1806.mangareader.service.ChapterResolutionService;
+import com.jagt1806.mangareader.service.FacetService;
 import com.jagt1806.mangareader.service.MangaService;
+import com.jagt1806.mangareader.service.PrefetchService;
+import com.jagt1806.mangareader.service.SuggestService;
+import com.jagt1806.mangareader.util.MessageUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class MangaServiceImp implements MangaService {
     private final MangaClient mangaClient;
+    private final TieredCache<MangaListResponse> mangaSearchCache;
+    private final TieredCache<FeedMangaResponse> mangaFeedCache;
+    private final ChapterPageService chapterPageService;
+    private final ChapterResolutionService chapterResolutionService;
+    private final PrefetchService prefetchService;
+    private final CatalogService catalogService;
+    private final SuggestService suggestService;
+    private final FacetService facetService;
+    private final MeterRegistry meterRegistry;
+    private final MessageUtil messageUtil;
 
     private static final String INCLUDES = "cover_art";
     private static final List<String> SAFE_CONTENT = List.of("safe", "suggestive");
     private static final List<String> NSFW_CONTENT = List.of("erotica", "pornographic");
+    private static final List<String> ALL_CONTENT = List.of("safe", "suggestive", "erotica", "pornographic");
+    private static final int BATCH_SIZE = 100;
+    private static final int FULL_FEED_PAGE_SIZE = 500;
+
+    @Value("${manga.feed.full.concurrency:4}")
+    private int fullFeedConcurrency;
+    @Value("${manga.archive.concurrency:4}")
+    private int archiveConcurrency;
+    @Value("${cache.manga.ttl:30m}")
+    private Duration mangaTtl;
+    @Value("${cache.manga.size:20000}")
+    private long mangaSize;
+    @Value("${manga.batch.max-ids:200}")
+    private int batchMaxIds;
+
+    // Se guarda la respuesta completa para que sea siempre la misma instancia y su ETag quede memorizado.
+    // Es asíncrona para que la llamada a MangaDex se haga fuera del cerrojo del mapa (CallerLoads)
+    private AsyncCache<String, MangaResponse> mangas;
+
+    @PostConstruct
+    public void init() {
+        mangas = Caffeine.newBuilder()
+                .maximumSize(mangaSize)
+                .expireAfterWrite(mangaTtl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, mangas.synchronous(), "manga.details");
+    }
 
     @Override
     public MangaListResponse getMangas(String title, int offset, int limit, boolean nsfw, String language) {
         List<String> contentRatingFilters = new ArrayList<>(SAFE_CONTENT);
         if(nsfw) contentRatingFilters.addAll(NSFW_CONTENT);
         List<String> availableTranslatedLanguage = getLanguage(language);
+        String normalizedTitle = normalizeTitle(title);
 
-        MangaList apiResponse = mangaClient.getSearchManga(title, INCLUDES, offset, limit, contentRatingFilters, availableTranslatedLanguage);
+        String key = String.join("|",
+                normalizedTitle, String.valueOf(offset), String.valueOf(limit),
+                String.join(",", contentRatingFilters.stream().sorted().toList()),
+                String.join(",", availableTranslatedLanguage.stream().sorted().toList())
+        );
+
+        return mangaSearchCache.get(key, () -> searchCatalog(
+                normalizedTitle, offset, limit, contentRatingFilters, availableTranslatedLanguage, language
+        ).orElseGet(() -> {
+            MangaList apiResponse = DecodeLanguage.with(availableTranslatedLanguage, () -> mangaClient.getSearchManga(
+                    normalizedTitle.isEmpty() ? null : normalizedTitle, INCLUDES, offset, limit, contentRatingFilters, availableTranslatedLanguage
+            ));
+
+            return new MangaListResponse(
+                    apiResponse.getData().stream().map(data -> convertMangaDTO(data, language)).toList(),
+                    offset, limit, apiResponse.getTotal()
+            );
+        }));
+    }
 
-        return new MangaListResponse(
-                apiResponse.getData().stream().map(data -> convertMangaDTO(data, language)).toList(),
-                offset, limit, apiResponse.getTotal()
+    /**
+     * Filtra en memoria sobre el catálogo local; solo la página de resultados se lee de la base de datos.
+     * Las valoraciones permitidas según nsfw se aplican siempre; las explícitas solo las estrechan.
+     */
+    @Override
+    public FacetedMangaListResponse getFacetedMangas(List<String> tags, List<String> ratings, List<String> status,
+                                                     List<String> languages, boolean nsfw, int offset, int limit, String language) {
+        List<String> contentRatingFilters = new ArrayList<>(SAFE_CONTENT);
+        if(nsfw) contentRatingFilters.addAll(NSFW_CONTENT);
+
+        Map<String, List<String>> filters = new HashMap<>();
+        filters.put(FacetService.TAG, Optional.ofNullable(tags).orElse(List.of()));
+        filters.put(FacetService.RATING, Optional.ofNullable(ratings).orElse(List.of()));
+        filters.put(FacetService.STATUS, Optional.ofNullable(status).orElse(List.of()));
+        filters.put(FacetService.LANGUAGE, Optional.ofNullable(languages).orElse(List.of()));
+
+        FacetResultDTO result = facetService.search(filters, contentRatingFilters, offset, limit);
+        return new FacetedMangaListResponse(
+                catalogService.findByIds(result.getIds()).stream().map(manga -> convertMangaDTO(manga, language)).toList(),
+                offset, limit, result.getTotal(), result.getFacets()
         );
     }
 
     @Override
     public MangaResponse getMangaId(String id, String language) {
-        return new MangaResponse(
-                convertMangaDTO(mangaClient.getMangaId(id, INCLUDES).getData(), language)
+        return CallerLoads.get(mangas, mangaKey(id, language), key -> new MangaResponse(convertMangaDTO(
+                DecodeLanguage.with(getLanguage(language), () -> mangaClient.getMangaId(id, INCLUDES)).getData(), language
+        )));
+    }
+
+    @Override
+    public MangaBatchResponse getMangasByIds(List<String> ids, String language) {
+        List<String> requested = ids.stream().map(String::trim).filter(id -> !id.isEmpty()).distinct().toList();
+        if(requested.size() > batchMaxIds) {
+            throw new IllegalArgumentException(messageUtil.getMessage("manga.batch.limit", new Object[]{batchMaxIds}));
+        }
+
+        Map<String, MangaDTO> found = findMangas(requested, language);
+        return new MangaBatchResponse(
+                requested.stream().map(found::get).filter(Objects::nonNull).toList(),
+                requested.stream().filter(id -> !found.containsKey(id)).toList()
         );
     }
 
@@ -55,25 +182,192 @@ public class MangaServiceImp implements MangaService {
         if(nsfw) contentRatingFilters.addAll(NSFW_CONTENT);
         List<String> availableTranslatedLanguage = getLanguage(language);
 
-        FeedList apiResponse = mangaClient.getMangaIdFeed(id, offset, limit, contentRatingFilters, null, "asc", "asc", availableTranslatedLanguage);
-
-        return new FeedMangaResponse(
-                apiResponse.getData().stream().map(this::convertFeedMangaDTO).toList(),
-                offset, limit, apiResponse.getTotal()
+        String key = String.join("|",
+                id, String.valueOf(offset), String.valueOf(limit),
+                String.join(",", contentRatingFilters.stream().sorted().toList()),
+                String.join(",", availableTranslatedLanguage.stream().sorted().toList())
         );
+
+        return mangaFeedCache.get(key, () -> {
+            FeedList apiResponse = mangaClient.getMangaIdFeed(id, offset, limit, contentRatingFilters, null, "asc", "asc", availableTranslatedLanguage);
+
+            return new FeedMangaResponse(
+                    apiResponse.getData().stream().map(this::convertFeedMangaDTO).toList(),
+                    offset, limit, apiResponse.getTotal()
+            );
+        });
     }
 
     @Override
-    public ChapterMangaResponse getChapter(String id) {
-        Chapter apiResponse = mangaClient.getAtHomeServerChapterId(id);
-        String baseUrl = apiResponse.getBaseUrl();
-        ChapterAttributes attributes = apiResponse.getChapter();
-        String hash = attributes.getHash();
-
-        return  new ChapterMangaResponse(
-                buildUrl(baseUrl, hash, attributes.getData(), "data"),
-                buildUrl(baseUrl, hash, attributes.getDataSaver(), "data-saver")
-        );
+    public void streamFeed(String id, boolean nsfw, String language, Consumer<List<FeedMangaDTO>> consumer) {
+        List<String> contentRatingFilters = new ArrayList<>(SAFE_CONTENT);
+        if(nsfw) contentRatingFilters.addAll(NSFW_CONTENT);
+        List<String> availableTranslatedLanguage = getLanguage(language);
+
+        FeedList first = mangaClient.getMangaIdFeed(id, 0, FULL_FEED_PAGE_SIZE, contentRatingFilters, null, "asc", "asc", availableTranslatedLanguage);
+        consumer.accept(first.getData().stream().map(this::convertFeedMangaDTO).toList());
+
+        long total = first.getTotal();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Deque<Future<FeedList>> window = new ArrayDeque<>();
+            try {
+                int offset = FULL_FEED_PAGE_SIZE;
+                while(offset < total || !window.isEmpty()) {
+                    while(offset < total && window.size() < fullFeedConcurrency) {
+                        int pageOffset = offset;
+                        window.add(executor.submit(() -> mangaClient.getMangaIdFeed(
+                                id, pageOffset, FULL_FEED_PAGE_SIZE, contentRatingFilters, null, "asc", "asc", availableTranslatedLanguage
+                        )));
+                        offset += FULL_FEED_PAGE_SIZE;
+                    }
+                    FeedList page = await(window.poll());
+                    consumer.accept(page.getData().stream().map(this::convertFeedMangaDTO).toList());
+                }
+            } catch (RuntimeException e) {
+                window.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+    }
+
+    @Override
+    public ChapterMangaResponse getChapter(String id, boolean proxy) {
+        ChapterResolutionDTO resolution = chapterResolutionService.resolve(id);
+        chapterPageService.registerChapter(id, resolution.getChapter());
+        prefetchService.prefetchNext(id);
+
+        return proxy ? resolution.getProxyUrls() : resolution.getUrls();
+    }
+
+    /**
+     * Escribe el capítulo como CBZ directamente sobre la salida. Las páginas se descargan (o se leen
+     * de la caché de páginas) en una ventana de archiveConcurrency tareas y se añaden en orden, así
+     * que en memoria solo hay referencias a ficheros, nunca la imagen ni el zip completo.
+     */
+    @Override
+    public void streamChapterArchive(String id, boolean dataSaver, OutputStream out) throws IOException {
+        ChapterResolutionDTO resolution = chapterResolutionService.resolve(id);
+        chapterPageService.registerChapter(id, resolution.getChapter());
+        ChapterAttributes attributes = resolution.getChapter().getChapter();
+        int pages = (dataSaver ? attributes.getDataSaver() : attributes.getData()).size();
+        String format = "%0" + Math.max(3, String.valueOf(pages).length()) + "d%s";
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            Deque<Future<ChapterPageDTO>> window = new ArrayDeque<>();
+            try {
+                int next = 0;
+                for(int page = 0; page < pages; page++) {
+                    while(next < pages && window.size() < archiveConcurrency) {
+                        int pageNumber = next++;
+                        window.add(executor.submit(() -> chapterPageService.getPage(id, pageNumber, dataSaver)));
+                    }
+                    ChapterPageDTO file = await(window.poll());
+                    String fileName = file.getFileName();
+                    writeStoredEntry(zip, String.format(format, page + 1, fileName.substring(Math.max(0, fileName.lastIndexOf('.')))), file);
+                }
+            } catch (IOException | RuntimeException e) {
+                window.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+    }
+
+    private void writeStoredEntry(ZipOutputStream zip, String name, ChapterPageDTO page) throws IOException {
+        // Las imágenes ya están comprimidas: STORED evita gastar CPU en deflate, pero exige el CRC por adelantado
+        // Un único descriptor para las dos pasadas: si la caché expulsa la página entretanto, sigue legible
+        try (FileChannel channel = FileChannel.open(page.getFile(), StandardOpenOption.READ)) {
+            // Los streams no se cierran: cerrarían el canal, que se reutiliza para la copia
+            CRC32 crc = new CRC32();
+            new CheckedInputStream(Channels.newInputStream(channel), crc).transferTo(OutputStream.nullOutputStream());
+            channel.position(0);
+
+            ZipEntry entry = new ZipEntry(name);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(page.getSize());
+            entry.setCompressedSize(page.getSize());
+            entry.setCrc(crc.getValue());
+            zip.putNextEntry(entry);
+            Channels.newInputStream(channel).transferTo(zip);
+            zip.closeEntry();
+        }
+    }
+
+    private Optional<MangaListResponse> searchCatalog(String title, int offset, int limit, List<String> contentRating,
+                                                      List<String> availableTranslatedLanguage, String language) {
+        if(!catalogService.isReady()) return Optional.empty();
+        try {
+            List<CatalogManga> mangas = catalogService.search(title, offset, limit, contentRating, availableTranslatedLanguage);
+            if(mangas.isEmpty()) return Optional.empty();
+
+            return Optional.of(new MangaListResponse(
+                    mangas.stream().map(manga -> convertMangaDTO(manga, language)).toList(),
+                    offset, limit, catalogService.count(title, contentRating, availableTranslatedLanguage)
+            ));
+        } catch (DataAccessException e) {
+            log.warn("Búsqueda en el catálogo local fallida, se consulta MangaDex", e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Resuelve primero desde la caché por manga y pide el resto a MangaDex con ids[] en bloques de
+     * BATCH_SIZE, todos en paralelo. El idioma, el carril y el seguimiento de respuestas de respaldo
+     * se fijan dentro de cada tarea porque los ThreadLocal no se heredan; si un bloque llegó de
+     * respaldo se marca la petición en el hilo del llamante y ese bloque no se guarda en caché.
+     */
+    private Map<String, MangaDTO> findMangas(List<String> ids, String language) {
+        Map<String, MangaDTO> found = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for(String id : ids) {
+            // Solo valores ya cargados: una carga en curso no bloquea el lote, ese id se pide con el resto
+            MangaResponse cached = mangas.synchronous().getIfPresent(mangaKey(id, language));
+            if(cached != null) found.put(id, cached.getData());
+            else missing.add(id);
+        }
+        if(missing.isEmpty()) return found;
+
+        List<String> languages = getLanguage(language);
+        RequestLane lane = RequestLane.current();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<StaleResponses.Tracked<MangaList>>> chunks = new ArrayList<>();
+            for(int i = 0; i < missing.size(); i += BATCH_SIZE) {
+                List<String> chunk = missing.subList(i, Math.min(i + BATCH_SIZE, missing.size()));
+                chunks.add(executor.submit(() -> lane.call(() -> StaleResponses.track(() -> DecodeLanguage.with(languages,
+                        () -> mangaClient.getMangaByIds(chunk, INCLUDES, BATCH_SIZE, ALL_CONTENT))))));
+            }
+
+            for(Future<StaleResponses.Tracked<MangaList>> chunk : chunks) {
+                StaleResponses.Tracked<MangaList> result = await(chunk);
+                if(result.stale()) StaleResponses.mark();
+                for(MangaData data : result.value().getData()) {
+                    MangaDTO manga = convertMangaDTO(data, language);
+                    if(!result.stale()) mangas.synchronous().put(mangaKey(data.getId(), language), new MangaResponse(manga));
+                    found.put(data.getId(), manga);
+                }
+            }
+        }
+        return found;
+    }
+
+    private String mangaKey(String id, String language) {
+        return language + ":" + id;
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof RuntimeException cause) throw cause;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String normalizeTitle(String title) {
+        return title == null ? "" : title.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
     }
 
     private List<String> getLanguage(String language) {
@@ -84,13 +378,32 @@ public class MangaServiceImp implements MangaService {
         MangaAttributes attributes = mangaData.getAttributes();
         String description = getDescription(attributes.getDescription(), language);
         String[] coverData = getCoverData(mangaData.getRelationships());
+        suggestService.index(mangaData.getId(), attributes.getTitle().get("en"), titles(attributes), attributes.getContentRating());
 
         return new MangaDTO(
                 mangaData.getId(),
                 attributes.getTitle().get("en"),
                 description,
                 coverData[0],
-                coverData[1]
+                coverData[1],
+                attributes.getContentRating()
+        );
+    }
+
+    private List<String> titles(MangaAttributes attributes) {
+        List<String> titles = new ArrayList<>(attributes.getTitle().values());
+        Optional.ofNullable(attributes.getAltTitles()).orElse(List.of()).forEach(alt -> titles.addAll(alt.values()));
+        return titles;
+    }
+
+    private MangaDTO convertMangaDTO(CatalogManga manga, String language) {
+        return new MangaDTO(
+                manga.getId(),
+                manga.getTitle(),
+                getDescription(manga.getDescriptions(), language),
+                manga.getCoverId(),
+                manga.getCoverFileName(),
+                manga.getContentRating()
         );
     }
 
@@ -119,8 +432,4 @@ public class MangaServiceImp implements MangaService {
                 )
         );
     }
-
-    private List<String> buildUrl(String baseUrl, String hash, List<String> data, String type) {
-        return data.stream().map(img -> String.format("%s/%s/%s/%s", baseUrl, type, hash, img)).toList();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,398 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.cache.DeferredDeletes;
+import com.jagt1806.mangareader.client.ImageClient;
+import com.jagt1806.mangareader.client.MangaClient;
+import com.jagt1806.mangareader.client.RequestLane;
+import com.jagt1806.mangareader.dto.api.Chapter;
+import com.jagt1806.mangareader.dto.api.Feed;
+import com.jagt1806.mangareader.dto.api.attributes.ChapterAttributes;
+import com.jagt1806.mangareader.repository.FavoritesRepository;
+import com.jagt1806.mangareader.service.PinService;
+import com.jagt1806.mangareader.util.ThreadFactoryUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Mantiene en disco los últimos capítulos de los mangas favoritos. Cada manga lleva un contador de
+ * referencias (un favorito por usuario): mientras sea mayor que cero sus capítulos se conservan y se
+ * renuevan periódicamente; al llegar a cero se borran y su espacio vuelve al presupuesto global.
+ * El disco es el manifiesto: la estructura manga/hash/tipo/fichero se reconstruye al arrancar.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PinServiceImp implements PinService {
+    private final MangaClient mangaClient;
+    private final ImageClient imageClient;
+    private final FavoritesRepository favoritesRepository;
+    private final MeterRegistry meterRegistry;
+    private final ThreadFactoryUtil threadFactoryUtil;
+
+    private static final String TEMP_PREFIX = "tmp-";
+    private static final String COMPLETE_SUFFIX = ".complete";
+    private static final Duration DELETE_GRACE = Duration.ofMinutes(1);
+    private static final List<String> ALL_CONTENT = List.of("safe", "suggestive", "erotica", "pornographic");
+
+    @Value("${pins.enabled:false}")
+    private boolean enabled;
+    @Value("${pins.dir:${java.io.tmpdir}/manga-reader/pins}")
+    private String pinsDir;
+    @Value("${pins.max-size:5GB}")
+    private DataSize maxSize;
+    @Value("${pins.chapters:3}")
+    private int chaptersPerManga;
+    @Value("${pins.languages:es,es-la,en}")
+    private List<String> languages;
+    @Value("${pins.data-saver:false}")
+    private boolean dataSaver;
+    @Value("${pins.threads:2}")
+    private int threads;
+    @Value("${pins.queue:256}")
+    private int queue;
+    @Value("${pins.pages-per-second:4}")
+    private double pagesPerSecond;
+
+    private final ConcurrentHashMap<String, Integer> references = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Path> pages = new ConcurrentHashMap<>();
+    // Mangas encolados o en curso; el backlog alimenta el pool a medida que quedan huecos libres
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Deque<String> backlog = new ConcurrentLinkedDeque<>();
+    // chapterId → hash de los capítulos ya descargados por completo (marcador en disco)
+    private final ConcurrentHashMap<String, String> complete = new ConcurrentHashMap<>();
+    private final AtomicLong totalBytes = new AtomicLong();
+    private final AtomicLong nextSlot = new AtomicLong();
+
+    private Path root;
+    private DeferredDeletes deferredDeletes;
+    private String type;
+    private long pageInterval;
+    private ThreadPoolExecutor executor;
+    private Counter downloaded;
+    private Counter overBudget;
+    private Counter skipped;
+
+    @PostConstruct
+    public void init() {
+        root = Path.of(pinsDir).toAbsolutePath().normalize();
+        deferredDeletes = new DeferredDeletes(root, DELETE_GRACE);
+        type = dataSaver ? "data-saver" : "data";
+        pageInterval = (long) (TimeUnit.SECONDS.toNanos(1) / pagesPerSecond);
+        downloaded = meterRegistry.counter("manga.pins.pages", "result", "downloaded");
+        overBudget = meterRegistry.counter("manga.pins.pages", "result", "over-budget");
+        skipped = meterRegistry.counter("manga.pins.chapters", "result", "already-complete");
+        meterRegistry.gauge("manga.pins.bytes", totalBytes);
+        if(!enabled) return;
+
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), threadFactoryUtil.create("pin-"));
+        loadReferences();
+        loadDisk();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if(executor != null) executor.shutdownNow();
+    }
+
+    @Override
+    public void acquire(String mangaId) {
+        if(!enabled) return;
+        references.merge(mangaId, 1, Integer::sum);
+        schedule(mangaId);
+    }
+
+    @Override
+    public void release(String mangaId) {
+        if(!enabled) return;
+        Integer remaining = references.computeIfPresent(mangaId, (key, value) -> value <= 1 ? null : value - 1);
+        if(remaining == null) unpin(mangaId);
+    }
+
+    @Override
+    public Optional<Path> findPage(String hash, String type, String fileName) {
+        if(!enabled) return Optional.empty();
+        Path file = pages.get(pageKey(hash, type, fileName));
+        return file != null && Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    /**
+     * Reconcilia los contadores con la base de datos (cubre borrados de usuarios y cambios hechos por
+     * otras instancias) y vuelve a encolar cada manga para descargar capítulos nuevos.
+     */
+    @Scheduled(fixedDelayString = "${pins.refresh-interval:3600000}", initialDelayString = "${pins.initial-delay:120000}")
+    public void refresh() {
+        if(!enabled) return;
+        sweep();
+        Set<String> previous = new HashSet<>(references.keySet());
+        loadReferences();
+        previous.stream().filter(mangaId -> !references.containsKey(mangaId)).forEach(this::unpin);
+        references.keySet().forEach(this::schedule);
+    }
+
+    private void schedule(String mangaId) {
+        if(!pending.add(mangaId)) return;
+        backlog.add(mangaId);
+        feed();
+    }
+
+    /**
+     * Pasa mangas del backlog al pool mientras su cola tenga hueco. Cada tarea vuelve a llamar al
+     * terminar, así que un refresco con miles de favoritos avanza a ritmo del pool sin descartar
+     * ninguno (antes el exceso se perdía siempre en el mismo orden).
+     */
+    private void feed() {
+        String mangaId;
+        while(executor.getQueue().remainingCapacity() > 0 && (mangaId = backlog.poll()) != null) {
+            String next = mangaId;
+            try {
+                executor.execute(() -> {
+                    try {
+                        RequestLane.BACKGROUND.run(() -> pin(next));
+                    } catch (RuntimeException e) {
+                        log.warn("No se pudieron fijar los capítulos del manga {}", next, e);
+                    } finally {
+                        pending.remove(next);
+                        feed();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // Otro hilo llenó la cola entretanto (o el pool se está cerrando): vuelve al principio
+                backlog.addFirst(next);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Si el manga deja de ser favorito o se agota el presupuesto se dejan de descargar capítulos, pero
+     * se sale del bucle y no del método: la limpieza del final (prune o unpin) se hace siempre.
+     */
+    private void pin(String mangaId) {
+        sweep();
+        List<Feed> latest = mangaClient.getMangaIdFeed(
+                mangaId, 0, chaptersPerManga, ALL_CONTENT, null, "desc", "desc", languages
+        ).getData();
+
+        Set<String> keep = new HashSet<>();
+        chapters:
+        for(Feed feed : latest) {
+            if(!references.containsKey(mangaId)) break;
+
+            // Capítulo ya completo en disco: no hace falta gastar una llamada a at-home
+            String completeHash = complete.get(feed.getId());
+            if(completeHash != null) {
+                keep.add(completeHash);
+                skipped.increment();
+                continue;
+            }
+
+            Chapter chapter = mangaClient.getAtHomeServerChapterId(feed.getId());
+            ChapterAttributes attributes = chapter.getChapter();
+            keep.add(attributes.getHash());
+
+            List<String> files = dataSaver ? attributes.getDataSaver() : attributes.getData();
+            for(String fileName : files) {
+                String key = pageKey(attributes.getHash(), type, fileName);
+                if(pages.containsKey(key)) continue;
+                if(totalBytes.get() >= maxSize.toBytes()) {
+                    overBudget.increment();
+                    break chapters;
+                }
+                throttle();
+                String url = String.format("%s/%s/%s/%s", chapter.getBaseUrl(), type, attributes.getHash(), fileName);
+                store(mangaId, key, url);
+            }
+            markComplete(mangaId, feed.getId(), attributes.getHash(), files.size());
+        }
+
+        // Los capítulos que ya no están entre los últimos se liberan
+        if(references.containsKey(mangaId)) prune(mangaId, keep);
+        else unpin(mangaId);
+    }
+
+    private void store(String mangaId, String key, String url) {
+        Path target = root.resolve(mangaId).resolve(key).normalize();
+        if(!target.startsWith(root)) throw new IllegalArgumentException(key);
+        Path temp = null;
+        try {
+            temp = Files.createTempFile(root, TEMP_PREFIX, ".part");
+            imageClient.download(url, temp);
+            DeferredDeletes.moveInto(temp, target);
+            totalBytes.addAndGet(Files.size(target));
+            pages.put(key, target);
+            downloaded.increment();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    private void markComplete(String mangaId, String chapterId, String hash, int files) {
+        try {
+            Files.writeString(marker(mangaId, hash), chapterId + "\n" + files);
+            complete.put(chapterId, hash);
+        } catch (IOException e) {
+            log.warn("No se pudo marcar como completo el capítulo {}", chapterId, e);
+        }
+    }
+
+    private Path marker(String mangaId, String hash) {
+        Path marker = root.resolve(mangaId).resolve(hash).resolve(type + COMPLETE_SUFFIX).normalize();
+        if(!marker.startsWith(root)) throw new IllegalArgumentException(hash);
+        return marker;
+    }
+
+    /**
+     * Reparte las descargas a pagesPerSecond entre todos los hilos del pool: cada página reserva el
+     * siguiente hueco libre y espera hasta él.
+     */
+    private void throttle() {
+        long now = System.nanoTime();
+        long slot = nextSlot.getAndAccumulate(now, (next, current) -> Math.max(next, current) + pageInterval);
+        long wait = Math.max(slot, now) - now;
+        if(wait > 0) LockSupport.parkNanos(wait);
+    }
+
+    private void prune(String mangaId, Set<String> keep) {
+        Path mangaDir = root.resolve(mangaId);
+        if(!Files.isDirectory(mangaDir)) return;
+        try (Stream<Path> hashes = Files.list(mangaDir)) {
+            hashes.filter(dir -> !keep.contains(dir.getFileName().toString())).forEach(this::delete);
+        } catch (IOException e) {
+            log.warn("No se pudieron liberar capítulos antiguos de {}", mangaId, e);
+        }
+    }
+
+    private void unpin(String mangaId) {
+        delete(root.resolve(mangaId));
+    }
+
+    /**
+     * Las páginas dejan de servirse en el acto, pero el fichero se borra tras DELETE_GRACE: una
+     * respuesta que ya obtuvo la ruta todavía puede estar abriéndola.
+     */
+    private void delete(Path dir) {
+        if(!Files.exists(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.filter(Files::isRegularFile).forEach(file -> {
+                Path relative = root.relativize(file);
+                if(isMarker(relative)) {
+                    // El marcador no se sirve a nadie: se borra ya para que el capítulo vuelva a descargarse
+                    complete.values().remove(relative.getName(1).toString());
+                    deleteQuietly(file);
+                    return;
+                }
+                if(relative.getNameCount() == 4 && pages.remove(relative.subpath(1, 4).toString().replace('\\', '/'), file)) {
+                    totalBytes.addAndGet(-file.toFile().length());
+                    deferredDeletes.schedule(file);
+                }
+            });
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar {}", dir, e);
+        }
+    }
+
+    private void sweep() {
+        deferredDeletes.sweep(file -> {
+            Path relative = root.relativize(file);
+            return file.equals(pages.get(relative.subpath(1, relative.getNameCount()).toString().replace('\\', '/')));
+        });
+    }
+
+    private void loadReferences() {
+        Map<String, Integer> counts = new HashMap<>();
+        for(Object[] row : favoritesRepository.countGroupByMangaId()) {
+            counts.put((String) row[0], ((Number) row[1]).intValue());
+        }
+        references.keySet().retainAll(counts.keySet());
+        references.putAll(counts);
+    }
+
+    private void loadDisk() {
+        try {
+            Files.createDirectories(root);
+            List<Path> markers = new ArrayList<>();
+            try (Stream<Path> files = Files.walk(root)) {
+                files.filter(Files::isRegularFile).forEach(file -> {
+                    Path relative = root.relativize(file);
+                    boolean referenced = references.containsKey(relative.getName(0).toString());
+                    if(referenced && isMarker(relative)) {
+                        markers.add(file);
+                        return;
+                    }
+                    if(file.getFileName().toString().startsWith(TEMP_PREFIX) || relative.getNameCount() != 4 || !referenced) {
+                        deleteQuietly(file);
+                        return;
+                    }
+                    pages.put(relative.subpath(1, 4).toString().replace('\\', '/'), file);
+                    totalBytes.addAndGet(file.toFile().length());
+                });
+            }
+            markers.forEach(this::loadMarker);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private boolean isMarker(Path relative) {
+        return relative.getNameCount() == 3 && relative.getFileName().toString().endsWith(COMPLETE_SUFFIX);
+    }
+
+    /**
+     * Un marcador solo vale si es del tipo configurado y siguen en disco todas las páginas que anota;
+     * si no, se borra y el capítulo se vuelve a resolver en el siguiente refresco.
+     */
+    private void loadMarker(Path marker) {
+        try {
+            String hash = marker.getParent().getFileName().toString();
+            String[] lines = Files.readString(marker).split("\n");
+            Path typeDir = marker.getParent().resolve(type);
+            long files;
+            try (Stream<Path> stored = Files.isDirectory(typeDir) ? Files.list(typeDir) : Stream.empty()) {
+                files = stored.filter(Files::isRegularFile).count();
+            }
+            if(marker.getFileName().toString().equals(type + COMPLETE_SUFFIX) && lines.length == 2
+                    && files == Long.parseLong(lines[1].trim())) {
+                complete.put(lines[0].trim(), hash);
+            } else {
+                deleteQuietly(marker);
+            }
+        } catch (IOException | NumberFormatException e) {
+            deleteQuietly(marker);
+        }
+    }
+
+    private String pageKey(String hash, String type, String fileName) {
+        return String.join("/", hash, type, fileName);
+    }
+
+    private void deleteQuietly(Path file) {
+        if(file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("No se pudo eliminar {}", file, e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jagt1806.mangareader.client.MangaClient;
+import com.jagt1806.mangareader.client.RequestLane;
+import com.jagt1806.mangareader.dto.api.Chapter;
+import com.jagt1806.mangareader.dto.api.Feed;
+import com.jagt1806.mangareader.dto.api.FeedList;
+import com.jagt1806.mangareader.dto.api.attributes.MangaRelationship;
+import com.jagt1806.mangareader.service.ChapterPageService;
+import com.jagt1806.mangareader.service.ChapterResolutionService;
+import com.jagt1806.mangareader.service.PrefetchService;
+import com.jagt1806.mangareader.util.ThreadFactoryUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.*;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PrefetchServiceImp implements PrefetchService {
+    private final MangaClient mangaClient;
+    private final ChapterPageService chapterPageService;
+    private final ChapterResolutionService chapterResolutionService;
+    private final MeterRegistry meterRegistry;
+    private final ThreadFactoryUtil threadFactoryUtil;
+
+    private static final List<String> ALL_CONTENT = List.of("safe", "suggestive", "erotica", "pornographic");
+    private static final int FEED_PAGE_SIZE = 500;
+
+    @Value("${prefetch.enabled:true}")
+    private boolean enabled;
+    @Value("${prefetch.threads:2}")
+    private int threads;
+    @Value("${prefetch.queue:64}")
+    private int queue;
+    @Value("${prefetch.per-manga:2}")
+    private int perManga;
+    @Value("${prefetch.pages:0}")
+    private int pages;
+
+    private final Cache<String, Feed> chapters = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(Duration.ofHours(1))
+            .build();
+    private final Cache<String, List<Feed>> feeds = Caffeine.newBuilder()
+            .maximumSize(1_000)
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .build();
+    private final ConcurrentHashMap<String, Integer> inFlight = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+    private Counter issued;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        issued = meterRegistry.counter("manga.prefetch", "result", "issued");
+        dropped = meterRegistry.counter("manga.prefetch", "result", "dropped");
+
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queue), threadFactoryUtil.create("prefetch-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void prefetchNext(String chapterId) {
+        if(!enabled) return;
+
+        try {
+            executor.execute(() -> RequestLane.BACKGROUND.run(() -> prefetch(chapterId)));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    private void prefetch(String chapterId) {
+        try {
+            Feed current = getChapterInfo(chapterId);
+            String mangaId = current.getRelationships().stream()
+                    .filter(r -> "manga".equals(r.getType()))
+                    .map(MangaRelationship::getId)
+                    .findFirst()
+                    .orElse(null);
+            if(mangaId == null) return;
+
+            int running = inFlight.merge(mangaId, 1, Integer::sum);
+            try {
+                if(running > perManga) {
+                    dropped.increment();
+                    return;
+                }
+                findNext(mangaId, current).ifPresent(next -> warm(next.getId()));
+            } finally {
+                inFlight.computeIfPresent(mangaId, (key, value) -> value == 1 ? null : value - 1);
+            }
+        } catch (RuntimeException e) {
+            log.debug("No se pudo precargar el capítulo siguiente a {}", chapterId, e);
+        }
+    }
+
+    private Feed getChapterInfo(String chapterId) {
+        Feed chapter = chapters.getIfPresent(chapterId);
+        if(chapter == null) {
+            chapter = mangaClient.getChapterId(chapterId).getData();
+            chapters.put(chapterId, chapter);
+        }
+        return chapter;
+    }
+
+    private Optional<Feed> findNext(String mangaId, Feed current) {
+        String language = current.getAttributes().getTranslatedLanguage();
+        String key = mangaId + "|" + language;
+
+        List<Feed> feed = feeds.getIfPresent(key);
+        if(feed == null || feed.stream().noneMatch(f -> f.getId().equals(current.getId()))) {
+            feed = loadFeed(mangaId, language);
+            feeds.put(key, feed);
+        }
+
+        boolean found = false;
+        for(Feed entry : feed) {
+            if(found && !Objects.equals(entry.getAttributes().getChapter(), current.getAttributes().getChapter()))
+                return Optional.of(entry);
+            if(entry.getId().equals(current.getId())) found = true;
+        }
+        return Optional.empty();
+    }
+
+    private List<Feed> loadFeed(String mangaId, String language) {
+        List<Feed> feed = new ArrayList<>();
+        int offset = 0;
+        long total;
+        do {
+            FeedList page = mangaClient.getMangaIdFeed(mangaId, offset, FEED_PAGE_SIZE, ALL_CONTENT, null, "asc", "asc", List.of(language));
+            feed.addAll(page.getData());
+            total = page.getTotal();
+            offset += FEED_PAGE_SIZE;
+        } while(offset < total);
+        return feed;
+    }
+
+    private void warm(String chapterId) {
+        // Si el lector ya lo resolvió (o lo está resolviendo) no hace falta otra llamada a at-home
+        if(chapterResolutionService.isCached(chapterId)) return;
+
+        Chapter chapter = chapterResolutionService.prefetch(chapterId).getChapter();
+        issued.increment();
+        chapterPageService.registerChapter(chapterId, chapter);
+
+        int count = Math.min(pages, chapter.getChapter().getData().size());
+        for(int page = 0; page < count; page++)
+            chapterPageService.getPage(chapterId, page, false);
+    }
+}
@@ -0,0 +1,216 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.progress.ReadingProgressDTO;
+import com.jagt1806.mangareader.exceptions.ProgressNotFoundException;
+import com.jagt1806.mangareader.http.request.progress.ReadingProgressRequest;
+import com.jagt1806.mangareader.http.response.progress.ReadingProgressListResponse;
+import com.jagt1806.mangareader.model.ReadingProgress;
+import com.jagt1806.mangareader.repository.ReadingProgressRepository;
+import com.jagt1806.mangareader.service.ReadingProgressService;
+import com.jagt1806.mangareader.util.MessageUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Las posiciones de lectura se escriben en diferido: cada informe sustituye al anterior del mismo
+ * usuario y manga en memoria, y un flush periódico vuelca solo la última posición de cada par en un
+ * lote JDBC. Las lecturas consultan primero el buffer para no devolver una posición ya superada.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReadingProgressServiceImp implements ReadingProgressService {
+    private final ReadingProgressRepository readingProgressRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageUtil messageUtil;
+    private final MeterRegistry meterRegistry;
+
+    private static final String UPSERT = """
+            INSERT INTO reading_progress (user_id, manga_id, chapter_id, page, updated_at) VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (user_id, manga_id) DO UPDATE
+            SET chapter_id = EXCLUDED.chapter_id, page = EXCLUDED.page, updated_at = EXCLUDED.updated_at
+            WHERE reading_progress.updated_at <= EXCLUDED.updated_at
+            """;
+    // Los ids de MangaDex son UUID; el límite deja margen sin acercarse al varchar(255) de las columnas
+    private static final int MAX_ID_LENGTH = 64;
+    private static final int MAX_PAGE = 10_000;
+
+    @Value("${progress.batch-size:500}")
+    private int batchSize;
+
+    private record ProgressKey(Long userId, String mangaId) {
+    }
+
+    private final ConcurrentHashMap<ProgressKey, ReadingProgressDTO> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private Counter reported;
+    private Counter written;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        reported = meterRegistry.counter("manga.progress", "result", "reported");
+        written = meterRegistry.counter("manga.progress", "result", "written");
+        dropped = meterRegistry.counter("manga.progress", "result", "dropped");
+        meterRegistry.gaugeMapSize("manga.progress.pending", List.of(), pending);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Espera a un flush programado en curso para no perder lo que llegue mientras tanto
+        flushLock.lock();
+        try {
+            flush();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void reportProgress(Long userId, ReadingProgressRequest request) {
+        if(!validId(request.getMangaId()) || !validId(request.getChapterId())
+                || request.getPage() < 0 || request.getPage() > MAX_PAGE) {
+            throw new IllegalArgumentException(messageUtil.getMessage("progress.invalid"));
+        }
+
+        ReadingProgressDTO progress = new ReadingProgressDTO(
+                userId, request.getMangaId(), request.getChapterId(), request.getPage(), Instant.now()
+        );
+        pending.put(new ProgressKey(userId, request.getMangaId()), progress);
+        reported.increment();
+    }
+
+    @Override
+    public ReadingProgressDTO getProgress(Long userId, String mangaId) {
+        ReadingProgressDTO buffered = pending.get(new ProgressKey(userId, mangaId));
+        if(buffered != null) return buffered;
+
+        return readingProgressRepository.findByUserIdAndMangaId(userId, mangaId)
+                .map(this::toDTO)
+                .orElseThrow(() -> new ProgressNotFoundException(null));
+    }
+
+    @Override
+    public ReadingProgressListResponse getProgressByUserId(Long userId) {
+        Map<String, ReadingProgressDTO> progress = new HashMap<>();
+        readingProgressRepository.findAllByUserId(userId).forEach(row -> progress.put(row.getMangaId(), toDTO(row)));
+        pending.forEach((key, value) -> {
+            if(key.userId().equals(userId)) progress.put(key.mangaId(), value);
+        });
+
+        return new ReadingProgressListResponse(progress.values().stream()
+                .sorted(Comparator.comparing(ReadingProgressDTO::getUpdatedAt).reversed())
+                .toList());
+    }
+
+    /**
+     * Se toma el lock del flush: si uno en curso ya ha sacado del buffer las posiciones de este usuario,
+     * se espera a que las escriba para borrarlas después, en vez de que el upsert las resucite.
+     */
+    @Override
+    public void deleteProgressByUserId(Long userId) {
+        flushLock.lock();
+        try {
+            pending.keySet().removeIf(key -> key.userId().equals(userId));
+            readingProgressRepository.deleteAllByUserId(userId);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Retira del buffer cada entrada solo si no ha cambiado desde que se leyó (remove(key, value)), de
+     * modo que un informe que llega durante el flush se queda para el siguiente. Si el lote falla por
+     * la base de datos (conexión, bloqueo) las entradas vuelven al buffer sin pisar las más recientes;
+     * si falla por los datos se reintenta fila a fila y solo se descarta la que no se puede escribir.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${progress.flush-interval:5000}")
+    public void flush() {
+        if(pending.isEmpty() || !flushLock.tryLock()) return;
+        try {
+            List<ReadingProgressDTO> batch = new ArrayList<>();
+            pending.forEach((key, value) -> {
+                if(pending.remove(key, value)) batch.add(value);
+            });
+
+            for(int from = 0; from < batch.size(); from += batchSize) {
+                List<ReadingProgressDTO> chunk = batch.subList(from, Math.min(batch.size(), from + batchSize));
+                try {
+                    jdbcTemplate.batchUpdate(UPSERT, chunk, chunk.size(), (ps, progress) -> {
+                        ps.setLong(1, progress.getUserId());
+                        ps.setString(2, progress.getMangaId());
+                        ps.setString(3, progress.getChapterId());
+                        ps.setInt(4, progress.getPage());
+                        ps.setTimestamp(5, Timestamp.from(progress.getUpdatedAt()));
+                    });
+                    written.increment(chunk.size());
+                } catch (DataAccessException e) {
+                    if(retryable(e)) {
+                        log.warn("No se pudo guardar el progreso de lectura, se reintentará", e);
+                        chunk.forEach(this::requeue);
+                    } else {
+                        writeRows(chunk);
+                    }
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeRows(List<ReadingProgressDTO> chunk) {
+        for(ReadingProgressDTO progress : chunk) {
+            try {
+                jdbcTemplate.update(UPSERT, progress.getUserId(), progress.getMangaId(), progress.getChapterId(),
+                        progress.getPage(), Timestamp.from(progress.getUpdatedAt()));
+                written.increment();
+            } catch (DataAccessException e) {
+                if(retryable(e)) {
+                    requeue(progress);
+                } else {
+                    log.warn("Se descarta el progreso de lectura del usuario {} en el manga {}", progress.getUserId(), progress.getMangaId(), e);
+                    dropped.increment();
+                }
+            }
+        }
+    }
+
+    private void requeue(ReadingProgressDTO progress) {
+        pending.putIfAbsent(new ProgressKey(progress.getUserId(), progress.getMangaId()), progress);
+    }
+
+    private boolean retryable(DataAccessException e) {
+        return e instanceof TransientDataAccessException || e instanceof RecoverableDataAccessException
+                || e instanceof DataAccessResourceFailureException;
+    }
+
+    private boolean validId(String id) {
+        return id != null && !id.isBlank() && id.length() <= MAX_ID_LENGTH;
+    }
+
+    private ReadingProgressDTO toDTO(ReadingProgress progress) {
+        return new ReadingProgressDTO(
+                progress.getUserId(), progress.getMangaId(), progress.getChapterId(), progress.getPage(), progress.getUpdatedAt()
+        );
+    }
+}
@@ -0,0 +1,417 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.manga.MangaDTO;
+import com.jagt1806.mangareader.dto.manga.SimilarMangaDTO;
+import com.jagt1806.mangareader.http.response.manga.SimilarResponse;
+import com.jagt1806.mangareader.service.MangaService;
+import com.jagt1806.mangareader.service.SimilarService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recomendaciones "quienes añadieron este manga también añadieron" a partir de la coocurrencia en
+ * favoritos. La reconstrucción periódica:
+ * <ul>
+ *   <li>lee la tabla de favoritos en streaming, ordenada por usuario, a arrays de int en formato CSR
+ *   (usuario → mangas), dando a cada manga un número denso;</li>
+ *   <li>invierte esos arrays (manga → usuarios) con un recuento en dos pasadas;</li>
+ *   <li>calcula en paralelo cada fila de la matriz de coocurrencia con un acumulador disperso por tarea
+ *   y conserva solo los N vecinos con mayor puntuación.</li>
+ * </ul>
+ * La matriz completa nunca se materializa, así que la memoria de la reconstrucción crece con el número
+ * de favoritos y no con el de pares. Las consultas leen una instantánea inmutable sin bloqueos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SimilarServiceImp implements SimilarService {
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MangaService mangaService;
+    private final MeterRegistry meterRegistry;
+
+    private static final Set<String> SAFE_CONTENT = Set.of("safe", "suggestive");
+    private static final String FAVORITES = "SELECT user_id, manga_id FROM favorites WHERE user_id IS NOT NULL ORDER BY user_id";
+
+    @Value("${similar.enabled:true}")
+    private boolean enabled;
+    @Value("${similar.neighbors:20}")
+    private int neighbors;
+    @Value("${similar.min-support:2}")
+    private int minSupport;
+    @Value("${similar.max-user-favorites:1000}")
+    private int maxUserFavorites;
+    @Value("${similar.parallelism:2}")
+    private int parallelism;
+    @Value("${similar.fetch-size:10000}")
+    private int fetchSize;
+    @Value("${similar.max-limit:20}")
+    private int maxLimit;
+
+    /**
+     * Vecinos de cada manga en CSR: los de mangaIds[i] ocupan [offsets[i], offsets[i + 1]) en
+     * neighbors, together (usuarios en común) y scores, ya ordenados de mayor a menor puntuación.
+     */
+    private record Snapshot(String[] mangaIds, Map<String, Integer> index, int[] offsets, int[] neighbors,
+                            int[] together, float[] scores) {
+        private static final Snapshot EMPTY = new Snapshot(new String[0], Map.of(), new int[]{0}, new int[0],
+                new int[0], new float[0]);
+
+        private long estimatedBytes() {
+            return 4L * offsets.length + 12L * neighbors.length + 100L * mangaIds.length;
+        }
+    }
+
+    /**
+     * Grafo bipartito usuario-manga en los dos sentidos. Los usuarios solo aparecen como índices densos;
+     * su id real no hace falta una vez agrupados sus favoritos.
+     */
+    record Graph(int items, int[] userOffsets, int[] userItems, int[] itemOffsets, int[] itemUsers) {
+        int degree(int item) {
+            return itemOffsets[item + 1] - itemOffsets[item];
+        }
+    }
+
+    /**
+     * Salida de las tareas: cada manga escribe en su propio tramo de tamaño fijo, así que las tareas no
+     * comparten nada mutable.
+     */
+    private record Rows(int[] count, int[] neighbors, int[] together, float[] scores) {
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile long buildBytes;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private ForkJoinPool pool;
+    private TransactionTemplate readOnly;
+    private Timer builds;
+
+    @PostConstruct
+    public void init() {
+        pool = new ForkJoinPool(Math.max(1, parallelism));
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        builds = Timer.builder("manga.similar.build").register(meterRegistry);
+        meterRegistry.gauge("manga.similar.items", this, service -> service.snapshot.mangaIds().length);
+        meterRegistry.gauge("manga.similar.bytes", this, service -> service.snapshot.estimatedBytes());
+        meterRegistry.gauge("manga.similar.build.bytes", this, service -> service.buildBytes);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    /**
+     * Los vecinos se calculan sin mirar la valoración; sin nsfw se descartan al enriquecer los que no
+     * sean safe o suggestive, como en el resto de listados.
+     */
+    @Override
+    public SimilarResponse getSimilar(String mangaId, int limit, boolean nsfw, String language) {
+        Snapshot current = snapshot;
+        Integer item = current.index().get(mangaId);
+        if(item == null) return new SimilarResponse(List.of());
+
+        int from = current.offsets()[item];
+        int to = Math.min(current.offsets()[item + 1], from + Math.max(1, Math.min(limit, maxLimit)));
+        if(from == to) return new SimilarResponse(List.of());
+
+        List<String> ids = new ArrayList<>(to - from);
+        for(int i = from; i < to; i++) ids.add(current.mangaIds()[current.neighbors()[i]]);
+
+        Map<String, MangaDTO> mangas = mangaService.getMangasByIds(ids, language).getData().stream()
+                .filter(manga -> nsfw || SAFE_CONTENT.contains(manga.getContentRating()))
+                .collect(Collectors.toMap(MangaDTO::getId, Function.identity(), (first, second) -> first));
+
+        List<SimilarMangaDTO> data = new ArrayList<>(ids.size());
+        for(int i = from; i < to; i++) {
+            MangaDTO manga = mangas.get(ids.get(i - from));
+            if(manga != null) data.add(new SimilarMangaDTO(manga, current.together()[i], current.scores()[i]));
+        }
+        return new SimilarResponse(data);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${similar.rebuild-interval:21600000}", initialDelayString = "${similar.initial-delay:120000}")
+    public void rebuild() {
+        if(!enabled || !running.compareAndSet(false, true)) return;
+        long start = System.nanoTime();
+        try {
+            List<String> mangaIds = new ArrayList<>();
+            IntBuffer userOffsets = new IntBuffer();
+            IntBuffer userItems = new IntBuffer();
+            load(mangaIds, userOffsets, userItems);
+
+            Graph graph = invert(mangaIds.size(), userOffsets.trim(), userItems.trim());
+            Rows rows = new Rows(new int[graph.items()], new int[graph.items() * neighbors],
+                    new int[graph.items() * neighbors], new float[graph.items() * neighbors]);
+            int grain = Math.max(64, graph.items() / (Math.max(1, parallelism) * 8));
+            pool.invoke(new RowTask(graph, rows, 0, graph.items(), grain));
+
+            snapshot = compact(mangaIds, rows);
+            buildBytes = 4L * (graph.userOffsets().length + graph.userItems().length + graph.itemOffsets().length
+                    + graph.itemUsers().length) + 12L * rows.neighbors().length + 8L * graph.items()
+                    + 2L * (long) graph.items() * Math.max(1, parallelism) * 4L;
+
+            long elapsed = System.nanoTime() - start;
+            builds.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Recomendaciones reconstruidas: {} favoritos, {} mangas, {} vecinos en {} ms ({} KB de trabajo, {} KB publicados)",
+                    userItems.size, graph.items(), snapshot.neighbors().length, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    buildBytes / 1024, snapshot.estimatedBytes() / 1024);
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron reconstruir las recomendaciones", e);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Los favoritos llegan ordenados por usuario con un cursor de servidor (fetch size dentro de una
+     * transacción de solo lectura), por lo que nunca hay más de un lote de filas como objetos.
+     */
+    private void load(List<String> mangaIds, IntBuffer userOffsets, IntBuffer userItems) {
+        Map<String, Integer> dictionary = new HashMap<>();
+        long[] lastUser = {Long.MIN_VALUE};
+
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FAVORITES);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, resultSet -> {
+            long user = resultSet.getLong(1);
+            int item = dictionary.computeIfAbsent(resultSet.getString(2), mangaId -> {
+                mangaIds.add(mangaId);
+                return mangaIds.size() - 1;
+            });
+            if(user != lastUser[0]) {
+                userOffsets.add(userItems.size);
+                lastUser[0] = user;
+            }
+            userItems.add(item);
+        }));
+        userOffsets.add(userItems.size);
+    }
+
+    /**
+     * Construye el índice manga → usuarios. Los usuarios con un solo favorito no aportan pares y los que
+     * superan similar.max-user-favorites se descartan: su coste es cuadrático y su señal, casi nula.
+     */
+    Graph invert(int items, int[] userOffsets, int[] userItems) {
+        int users = userOffsets.length - 1;
+        int[] itemOffsets = new int[items + 1];
+        for(int user = 0; user < users; user++) {
+            if(!useful(userOffsets, user)) continue;
+            for(int i = userOffsets[user]; i < userOffsets[user + 1]; i++) itemOffsets[userItems[i] + 1]++;
+        }
+        for(int item = 0; item < items; item++) itemOffsets[item + 1] += itemOffsets[item];
+
+        int[] itemUsers = new int[itemOffsets[items]];
+        int[] cursor = Arrays.copyOf(itemOffsets, items);
+        for(int user = 0; user < users; user++) {
+            if(!useful(userOffsets, user)) continue;
+            for(int i = userOffsets[user]; i < userOffsets[user + 1]; i++) itemUsers[cursor[userItems[i]]++] = user;
+        }
+        return new Graph(items, userOffsets, userItems, itemOffsets, itemUsers);
+    }
+
+    private boolean useful(int[] userOffsets, int user) {
+        int size = userOffsets[user + 1] - userOffsets[user];
+        return size > 1 && size <= maxUserFavorites;
+    }
+
+    private final class RowTask extends RecursiveAction {
+        private final Graph graph;
+        private final Rows rows;
+        private final int from;
+        private final int to;
+        private final int grain;
+
+        private RowTask(Graph graph, Rows rows, int from, int to, int grain) {
+            this.graph = graph;
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if(to - from <= grain) {
+                computeRows(graph, rows, from, to);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RowTask(graph, rows, from, middle, grain), new RowTask(graph, rows, middle, to, grain));
+        }
+    }
+
+    /**
+     * Para cada manga del rango recorre sus usuarios y los favoritos de estos, sumando coocurrencias en
+     * un array denso que se limpia a partir de la lista de posiciones tocadas. La puntuación es la
+     * coocurrencia normalizada por popularidad (coseno), para que los mangas que todo el mundo tiene no
+     * aparezcan como vecinos de todos.
+     */
+    private void computeRows(Graph graph, Rows rows, int from, int to) {
+        int[] counts = new int[graph.items()];
+        int[] touched = new int[graph.items()];
+        TopN top = new TopN(neighbors);
+
+        for(int item = from; item < to; item++) {
+            int touchedSize = 0;
+            for(int i = graph.itemOffsets()[item]; i < graph.itemOffsets()[item + 1]; i++) {
+                int user = graph.itemUsers()[i];
+                for(int j = graph.userOffsets()[user]; j < graph.userOffsets()[user + 1]; j++) {
+                    int other = graph.userItems()[j];
+                    if(other != item && counts[other]++ == 0) touched[touchedSize++] = other;
+                }
+            }
+
+            top.clear();
+            for(int t = 0; t < touchedSize; t++) {
+                int other = touched[t];
+                int together = counts[other];
+                counts[other] = 0;
+                if(together < minSupport) continue;
+                top.offer(other, together, (float) (together / Math.sqrt((double) graph.degree(item) * graph.degree(other))));
+            }
+            rows.count()[item] = top.drainDescending(rows.neighbors(), rows.together(), rows.scores(), item * neighbors);
+        }
+    }
+
+    private Snapshot compact(List<String> mangaIds, Rows rows) {
+        int items = mangaIds.size();
+        int[] offsets = new int[items + 1];
+        for(int item = 0; item < items; item++) offsets[item + 1] = offsets[item] + rows.count()[item];
+
+        int[] compactNeighbors = new int[offsets[items]];
+        int[] compactTogether = new int[offsets[items]];
+        float[] compactScores = new float[offsets[items]];
+        Map<String, Integer> index = new HashMap<>(items * 2);
+        for(int item = 0; item < items; item++) {
+            int count = rows.count()[item];
+            System.arraycopy(rows.neighbors(), item * neighbors, compactNeighbors, offsets[item], count);
+            System.arraycopy(rows.together(), item * neighbors, compactTogether, offsets[item], count);
+            System.arraycopy(rows.scores(), item * neighbors, compactScores, offsets[item], count);
+            if(count > 0) index.put(mangaIds.get(item), item);
+        }
+        return new Snapshot(mangaIds.toArray(String[]::new), index, offsets, compactNeighbors, compactTogether, compactScores);
+    }
+
+    /**
+     * Montículo mínimo de tamaño fijo sobre arrays primitivos para quedarse con los N mejores vecinos
+     * sin crear un objeto por candidato.
+     */
+    static final class TopN {
+        private final int[] items;
+        private final int[] together;
+        private final float[] scores;
+        private int size;
+
+        TopN(int capacity) {
+            items = new int[capacity];
+            together = new int[capacity];
+            scores = new float[capacity];
+        }
+
+        void clear() {
+            size = 0;
+        }
+
+        void offer(int item, int count, float score) {
+            if(size < items.length) {
+                set(size, item, count, score);
+                int child = size++;
+                while(child > 0) {
+                    int parent = (child - 1) >>> 1;
+                    if(scores[parent] <= scores[child]) break;
+                    swap(parent, child);
+                    child = parent;
+                }
+            } else if(items.length > 0 && score > scores[0]) {
+                set(0, item, count, score);
+                siftDown();
+            }
+        }
+
+        /**
+         * Vacía el montículo en los arrays de salida a partir de base, de mayor a menor puntuación, y
+         * devuelve cuántos vecinos escribió.
+         */
+        int drainDescending(int[] outItems, int[] outTogether, float[] outScores, int base) {
+            int count = size;
+            for(int k = count - 1; k >= 0; k--) {
+                outItems[base + k] = items[0];
+                outTogether[base + k] = together[0];
+                outScores[base + k] = scores[0];
+                size--;
+                set(0, items[size], together[size], scores[size]);
+                siftDown();
+            }
+            return count;
+        }
+
+        private void siftDown() {
+            int parent = 0;
+            while(true) {
+                int smallest = parent;
+                int left = 2 * parent + 1;
+                int right = left + 1;
+                if(left < size && scores[left] < scores[smallest]) smallest = left;
+                if(right < size && scores[right] < scores[smallest]) smallest = right;
+                if(smallest == parent) return;
+                swap(parent, smallest);
+                parent = smallest;
+            }
+        }
+
+        private void set(int position, int item, int count, float score) {
+            items[position] = item;
+            together[position] = count;
+            scores[position] = score;
+        }
+
+        private void swap(int a, int b) {
+            int item = items[a];
+            int count = together[a];
+            float score = scores[a];
+            set(a, items[b], together[b], scores[b]);
+            set(b, item, count, score);
+        }
+    }
+
+    private static final class IntBuffer {
+        private int[] data = new int[1024];
+        private int size;
+
+        private void add(int value) {
+            if(size == data.length) data = Arrays.copyOf(data, data.length + (data.length >> 1));
+            data[size++] = value;
+        }
+
+        private int[] trim() {
+            return size == data.length ? data : Arrays.copyOf(data, size);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.manga.SuggestionDTO;
+import com.jagt1806.mangareader.http.response.manga.SuggestResponse;
+import com.jagt1806.mangareader.model.Favorites;
+import com.jagt1806.mangareader.repository.FavoritesRepository;
+import com.jagt1806.mangareader.service.SuggestService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice de autocompletado en memoria. Los títulos vistos (respuestas de MangaDex, catálogo y
+ * favoritos) se acumulan en un mapa y se indexan en instantáneas inmutables de arrays primitivos:
+ * <ul>
+ *   <li>términos normalizados ordenados, sobre los que un prefijo es una búsqueda binaria más un recorrido;</li>
+ *   <li>postings de trigramas en formato CSR (gramas ordenados, offsets y términos) para coincidencias
+ *   en mitad del título.</li>
+ * </ul>
+ * Hay dos segmentos: el principal, con todos los títulos, que solo se reconstruye cada
+ * suggest.rebuild-interval, y uno delta con los títulos nuevos o cambiados desde entonces, que se
+ * rehace cada suggest.delta-interval y cuesta en proporción a esos cambios. Al reconstruir el
+ * principal, el delta suelta lo que ya ha quedado incluido. Las consultas leen los dos segmentos
+ * publicados sin bloqueos. Cada manga guarda si su valoración es apta (safe o suggestive); sin nsfw
+ * las consultas descartan el resto, también los de valoración desconocida.
+ */
+@Service
+@RequiredArgsConstructor
+public class SuggestServiceImp implements SuggestService {
+    private final FavoritesRepository favoritesRepository;
+    private final MeterRegistry meterRegistry;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> SAFE_CONTENT = Set.of("safe", "suggestive");
+
+    @Value("${suggest.max-titles:500000}")
+    private int maxTitles;
+    @Value("${suggest.max-limit:20}")
+    private int maxLimit;
+    @Value("${suggest.delta-max:20000}")
+    private int deltaMax;
+
+    private record Entry(String title, Set<String> terms, String contentRating) {
+    }
+
+    /**
+     * Instantánea compacta: cada término apunta a su manga por índice y los trigramas se empaquetan en
+     * un long (3 chars de 16 bits) para ordenarlos y buscarlos sin objetos.
+     */
+    private record Snapshot(String[] mangaIds, String[] titles, boolean[] safe, String[] terms, int[] termManga,
+                            long[] grams, int[] gramOffsets, int[] gramTerms) {
+        private static final Snapshot EMPTY = new Snapshot(new String[0], new String[0], new boolean[0], new String[0],
+                new int[0], new long[0], new int[]{0}, new int[0]);
+
+        private long estimatedBytes() {
+            long strings = 0;
+            for(String term : terms) strings += 40L + term.length();
+            return strings + 4L * termManga.length + 8L * grams.length + 4L * gramOffsets.length
+                    + 4L * gramTerms.length + 61L * mangaIds.length;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Títulos aún no incluidos en el segmento principal
+    private final ConcurrentHashMap<String, Entry> recent = new ConcurrentHashMap<>();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    // Las dos reconstrucciones corren en hilos del planificador distintos y no deben publicar a la vez
+    private final ReentrantLock building = new ReentrantLock();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile Snapshot delta = Snapshot.EMPTY;
+
+    private Timer lookups;
+    private Timer rebuilds;
+    private Timer deltaRebuilds;
+
+    @PostConstruct
+    public void init() {
+        lookups = Timer.builder("manga.suggest.lookup").publishPercentiles(0.5, 0.99).register(meterRegistry);
+        rebuilds = Timer.builder("manga.suggest.rebuild").tag("segment", "main").register(meterRegistry);
+        deltaRebuilds = Timer.builder("manga.suggest.rebuild").tag("segment", "delta").register(meterRegistry);
+        meterRegistry.gauge("manga.suggest.titles", entries, Map::size);
+        meterRegistry.gauge("manga.suggest.bytes", this,
+                service -> service.snapshot.estimatedBytes() + service.delta.estimatedBytes());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFavorites() {
+        for(Favorites favorite : favoritesRepository.findAll()) {
+            if(favorite.getNameManga() != null) index(favorite.getMangaId(), favorite.getNameManga(), List.of(), null);
+        }
+        rebuild();
+    }
+
+    @Override
+    public void index(String mangaId, String title, Collection<String> titles, String contentRating) {
+        if(mangaId == null) return;
+
+        Set<String> terms = new HashSet<>();
+        if(title != null) terms.add(normalize(title));
+        titles.stream().filter(Objects::nonNull).map(this::normalize).forEach(terms::add);
+        terms.remove("");
+        if(terms.isEmpty()) return;
+
+        Entry previous = entries.get(mangaId);
+        if(previous == null && entries.size() >= maxTitles) return;
+        // Los favoritos no traen valoración: se conserva la última conocida
+        String rating = contentRating != null ? contentRating : previous != null ? previous.contentRating() : null;
+        if(previous != null && previous.terms().containsAll(terms) && Objects.equals(previous.contentRating(), rating)) return;
+
+        if(previous != null) terms.addAll(previous.terms());
+        String display = title != null ? title : previous != null ? previous.title() : titles.iterator().next();
+        Entry entry = new Entry(display, terms, rating);
+        entries.put(mangaId, entry);
+        recent.put(mangaId, entry);
+        dirty.set(true);
+    }
+
+    @Override
+    public SuggestResponse suggest(String query, int limit, boolean nsfw) {
+        long start = System.nanoTime();
+        try {
+            String normalized = normalize(query == null ? "" : query);
+            int max = Math.max(1, Math.min(limit, maxLimit));
+            if(normalized.isEmpty()) return new SuggestResponse(List.of());
+
+            // El delta va primero: sus títulos son los más recientes y sustituyen a los del principal
+            List<Snapshot> segments = List.of(delta, snapshot);
+            LinkedHashMap<String, String> mangas = new LinkedHashMap<>();
+            for(Snapshot segment : segments) prefix(segment, normalized, mangas, max, nsfw);
+            if(normalized.length() >= 3) {
+                for(Snapshot segment : segments) {
+                    if(mangas.size() < max) infix(segment, normalized, mangas, max, nsfw);
+                }
+            }
+
+            return new SuggestResponse(mangas.entrySet().stream()
+                    .map(manga -> new SuggestionDTO(manga.getKey(), manga.getValue()))
+                    .toList());
+        } finally {
+            lookups.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Si el delta crece demasiado (por ejemplo durante la sincronización del catálogo) se adelanta la
+     * reconstrucción del principal, para que rehacer el delta siga siendo barato.
+     */
+    @Scheduled(fixedDelayString = "${suggest.delta-interval:5000}")
+    public void rebuildDeltaIfDirty() {
+        if(!dirty.compareAndSet(true, false)) return;
+        if(recent.size() > deltaMax) {
+            rebuild();
+            return;
+        }
+        building.lock();
+        try {
+            deltaRebuilds.record(() -> delta = build(recent));
+        } finally {
+            building.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${suggest.rebuild-interval:600000}", initialDelayString = "${suggest.rebuild-interval:600000}")
+    public void rebuildIfChanged() {
+        if(!recent.isEmpty()) rebuild();
+    }
+
+    private void prefix(Snapshot current, String query, Map<String, String> result, int max, boolean nsfw) {
+        String[] terms = current.terms();
+        int index = Arrays.binarySearch(terms, query);
+        if(index < 0) index = -index - 1;
+        for(; index < terms.length && result.size() < max && terms[index].startsWith(query); index++) {
+            add(current, current.termManga()[index], result, nsfw);
+        }
+    }
+
+    /**
+     * Intersecta los postings de los trigramas de la consulta empezando por el más corto y confirma con
+     * contains, porque compartir trigramas no garantiza que aparezcan contiguos.
+     */
+    private void infix(Snapshot current, String query, Map<String, String> result, int max, boolean nsfw) {
+        long[] queryGrams = grams(query);
+        int[][] ranges = new int[queryGrams.length][];
+        for(int i = 0; i < queryGrams.length; i++) {
+            int position = Arrays.binarySearch(current.grams(), queryGrams[i]);
+            if(position < 0) return;
+            ranges[i] = new int[]{current.gramOffsets()[position], current.gramOffsets()[position + 1]};
+        }
+        Arrays.sort(ranges, Comparator.comparingInt(range -> range[1] - range[0]));
+
+        int[] gramTerms = current.gramTerms();
+        for(int i = ranges[0][0]; i < ranges[0][1] && result.size() < max; i++) {
+            int term = gramTerms[i];
+            boolean all = true;
+            for(int r = 1; r < ranges.length && all; r++) {
+                all = Arrays.binarySearch(gramTerms, ranges[r][0], ranges[r][1], term) >= 0;
+            }
+            if(all && current.terms()[term].contains(query)) add(current, current.termManga()[term], result, nsfw);
+        }
+    }
+
+    private void add(Snapshot current, int manga, Map<String, String> result, boolean nsfw) {
+        if(!nsfw && !current.safe()[manga]) return;
+        result.putIfAbsent(current.mangaIds()[manga], current.titles()[manga]);
+    }
+
+    /**
+     * Reconstruye el segmento principal y retira del delta exactamente las entradas que ha incluido:
+     * si un título cambia mientras tanto, su entrada nueva es otra instancia y sigue en el delta.
+     */
+    private void rebuild() {
+        building.lock();
+        try {
+            rebuilds.record(() -> {
+                Map<String, Entry> included = new HashMap<>(entries);
+                snapshot = build(included);
+                included.forEach(recent::remove);
+                delta = build(recent);
+            });
+        } finally {
+            building.unlock();
+        }
+    }
+
+    private Snapshot build(Map<String, Entry> source) {
+        List<String> mangaIds = new ArrayList<>(source.size());
+        List<String> titles = new ArrayList<>(source.size());
+        BitSet safe = new BitSet();
+        List<Map.Entry<String, Integer>> termList = new ArrayList<>();
+        source.forEach((mangaId, entry) -> {
+            int manga = mangaIds.size();
+            mangaIds.add(mangaId);
+            titles.add(entry.title());
+            if(SAFE_CONTENT.contains(entry.contentRating())) safe.set(manga);
+            entry.terms().forEach(term -> termList.add(Map.entry(term, manga)));
+        });
+        termList.sort(Map.Entry.comparingByKey());
+
+        String[] terms = new String[termList.size()];
+        int[] termManga = new int[termList.size()];
+        for(int i = 0; i < terms.length; i++) {
+            terms[i] = termList.get(i).getKey();
+            termManga[i] = termList.get(i).getValue();
+        }
+
+        boolean[] safeMangas = new boolean[mangaIds.size()];
+        for(int manga = safe.nextSetBit(0); manga >= 0; manga = safe.nextSetBit(manga + 1)) safeMangas[manga] = true;
+
+        return buildGrams(mangaIds.toArray(String[]::new), titles.toArray(String[]::new), safeMangas, terms, termManga);
+    }
+
+    /**
+     * Construye el CSR en dos pasadas sin cajas: cuenta las apariciones de cada grama para fijar los
+     * offsets y después reparte los términos. Como se recorren en orden, cada posting queda ordenado
+     * y admite búsqueda binaria en la intersección.
+     */
+    private Snapshot buildGrams(String[] mangaIds, String[] titles, boolean[] safe, String[] terms, int[] termManga) {
+        long[][] perTerm = new long[terms.length][];
+        int count = 0;
+        for(int i = 0; i < terms.length; i++) {
+            perTerm[i] = grams(terms[i]);
+            count += perTerm[i].length;
+        }
+
+        long[] sorted = new long[count];
+        int position = 0;
+        for(long[] termGrams : perTerm) {
+            System.arraycopy(termGrams, 0, sorted, position, termGrams.length);
+            position += termGrams.length;
+        }
+        Arrays.sort(sorted);
+        long[] grams = Arrays.stream(sorted).distinct().toArray();
+
+        int[] offsets = new int[grams.length + 1];
+        for(long[] termGrams : perTerm) {
+            for(long gram : termGrams) offsets[Arrays.binarySearch(grams, gram) + 1]++;
+        }
+        for(int i = 0; i < grams.length; i++) offsets[i + 1] += offsets[i];
+
+        int[] cursor = Arrays.copyOf(offsets, grams.length);
+        int[] gramTerms = new int[count];
+        for(int i = 0; i < terms.length; i++) {
+            for(long gram : perTerm[i]) gramTerms[cursor[Arrays.binarySearch(grams, gram)]++] = i;
+        }
+
+        return new Snapshot(mangaIds, titles, safe, terms, termManga, grams, offsets, gramTerms);
+    }
+
+    private long[] grams(String term) {
+        if(term.length() < 3) return new long[0];
+        long[] grams = new long[term.length() - 2];
+        for(int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) term.charAt(i) << 32) | ((long) term.charAt(i + 1) << 16) | term.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    private String normalize(String title) {
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(title, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
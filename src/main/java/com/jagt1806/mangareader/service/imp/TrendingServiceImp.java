@@ -0,0 +1,233 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.manga.MangaDTO;
+import com.jagt1806.mangareader.dto.manga.TrendingMangaDTO;
+import com.jagt1806.mangareader.http.response.manga.TrendingResponse;
+import com.jagt1806.mangareader.repository.MangaPopularityRepository;
+import com.jagt1806.mangareader.service.MangaService;
+import com.jagt1806.mangareader.service.TrendingService;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Contadores de favoritos y puntuación de tendencia sin GROUP BY por petición. Las altas y bajas solo
+ * suman en LongAdder (repartidos en celdas, sin contención entre hilos); un flush periódico los vacía
+ * en manga_popularity como incrementos, no como valores absolutos, así que varias instancias pueden
+ * escribir a la vez sin pisarse. La tendencia decae exponencialmente con semivida trending.half-life
+ * y el decaimiento se aplica en SQL al sumar, de modo que la tabla es la única fuente de verdad: tras
+ * cada flush que escribe algo los dos rankings se recalculan desde ella (ORDER BY ... LIMIT, que
+ * Postgres resuelve con un montículo de tamaño K) y se publican como listas inmutables. El decaimiento
+ * es el mismo para todas las filas y no cambia el orden, así que sin escrituras propias solo se
+ * recalcula cada trending.rank-interval, para recoger las de otras instancias y refrescar las puntuaciones.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TrendingServiceImp implements TrendingService {
+    private final MangaPopularityRepository mangaPopularityRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final MangaService mangaService;
+
+    private static final Set<String> SAFE_CONTENT = Set.of("safe", "suggestive");
+    private static final String DECAYED_SCORE = """
+            trending_score * power(0.5, GREATEST(EXTRACT(EPOCH FROM (CAST(? AS timestamptz) - score_updated_at)), 0) / ?)""";
+    private static final String UPSERT = """
+            INSERT INTO manga_popularity (manga_id, favorites, trending_score, score_updated_at)
+            VALUES (?, GREATEST(?, 0), ?, ?)
+            ON CONFLICT (manga_id) DO UPDATE SET
+                favorites = GREATEST(manga_popularity.favorites + ?, 0),
+                trending_score = manga_popularity.trending_score * power(0.5, GREATEST(EXTRACT(EPOCH FROM (
+                    EXCLUDED.score_updated_at - COALESCE(manga_popularity.score_updated_at, EXCLUDED.score_updated_at))), 0) / ?
+                ) + EXCLUDED.trending_score,
+                score_updated_at = GREATEST(COALESCE(manga_popularity.score_updated_at, EXCLUDED.score_updated_at), EXCLUDED.score_updated_at)
+            """;
+    private static final String RECONCILE_COUNTS = """
+            INSERT INTO manga_popularity (manga_id, favorites, trending_score, score_updated_at)
+            SELECT manga_id, count(*), 0, ? FROM favorites GROUP BY manga_id
+            ON CONFLICT (manga_id) DO UPDATE SET favorites = EXCLUDED.favorites
+            """;
+    private static final String RECONCILE_ORPHANS = """
+            UPDATE manga_popularity p SET favorites = 0
+            WHERE p.favorites <> 0 AND NOT EXISTS (SELECT 1 FROM favorites f WHERE f.manga_id = p.manga_id)
+            """;
+    private static final String TOP_TRENDING = "SELECT manga_id, favorites, " + DECAYED_SCORE + " AS score"
+            + " FROM manga_popularity WHERE trending_score > 0 ORDER BY score DESC, manga_id LIMIT ?";
+    private static final String TOP_FAVORITES = "SELECT manga_id, favorites, " + DECAYED_SCORE + " AS score"
+            + " FROM manga_popularity WHERE favorites > 0 ORDER BY favorites DESC, manga_id LIMIT ?";
+
+    @Value("${trending.half-life:24h}")
+    private Duration halfLife;
+    @Value("${trending.top-k:100}")
+    private int topK;
+    @Value("${trending.rank-interval:5m}")
+    private Duration rankInterval;
+
+    private static final class Delta {
+        private final LongAdder net = new LongAdder();
+        private final LongAdder added = new LongAdder();
+    }
+
+    private record Ranked(String mangaId, long favorites, double score) {
+    }
+
+    private static final RowMapper<Ranked> RANKED = (rs, row) ->
+            new Ranked(rs.getString("manga_id"), rs.getLong("favorites"), rs.getDouble("score"));
+
+    private final ConcurrentHashMap<String, Delta> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile List<Ranked> trending = List.of();
+    private volatile List<Ranked> popular = List.of();
+    private volatile boolean loaded;
+    // Solo se leen y escriben bajo el lock
+    private boolean ranked;
+    private long rankedAt;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.lock();
+        try {
+            // Primer arranque: se parte de los favoritos existentes, sin historial de tendencia
+            if(mangaPopularityRepository.count() == 0) reconcileCounts();
+            rank();
+            loaded = true;
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron cargar los contadores de popularidad", e);
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    @Override
+    public void recordFavorite(String mangaId, int delta) {
+        Delta counters = pending.computeIfAbsent(mangaId, key -> new Delta());
+        counters.net.add(delta);
+        if(delta > 0) counters.added.add(delta);
+    }
+
+    /**
+     * El ranking no distingue valoraciones: sin nsfw se descartan al enriquecer los mangas que no sean
+     * safe o suggestive, igual que en el resto de listados, aunque la lista quede más corta que limit.
+     */
+    @Override
+    public TrendingResponse getTrending(String type, int limit, boolean nsfw, String language) {
+        String selected = FAVORITES.equals(type) ? FAVORITES : TRENDING;
+        List<Ranked> ranking = (FAVORITES.equals(selected) ? popular : trending).stream()
+                .limit(Math.max(0, Math.min(limit, topK)))
+                .toList();
+        if(ranking.isEmpty()) return new TrendingResponse(List.of(), selected);
+
+        Map<String, MangaDTO> mangas = mangaService.getMangasByIds(ranking.stream().map(Ranked::mangaId).toList(), language)
+                .getData().stream()
+                .filter(manga -> nsfw || SAFE_CONTENT.contains(manga.getContentRating()))
+                .collect(Collectors.toMap(MangaDTO::getId, Function.identity(), (first, second) -> first));
+
+        return new TrendingResponse(ranking.stream()
+                .filter(ranked -> mangas.containsKey(ranked.mangaId()))
+                .map(ranked -> new TrendingMangaDTO(mangas.get(ranked.mangaId()), ranked.favorites(), ranked.score()))
+                .toList(), selected);
+    }
+
+    @Scheduled(fixedDelayString = "${trending.flush-interval:10000}")
+    public void flush() {
+        // Hasta el arranque completo, los incrementos esperan en los acumuladores
+        if(!loaded) return;
+        lock.lock();
+        try {
+            if(drain() || !ranked || System.nanoTime() - rankedAt >= rankInterval.toNanos()) rank();
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron guardar los contadores de popularidad, se reintentará", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Los borrados masivos (por ejemplo al eliminar un usuario) no pasan por recordFavorite: cada cierto
+     * tiempo los contadores se igualan con la tabla de favoritos. Antes se vacían los incrementos
+     * pendientes bajo el mismo lock, porque la tabla de favoritos ya los incluye.
+     */
+    @Scheduled(fixedDelayString = "${trending.reconcile-interval:3600000}", initialDelayString = "${trending.reconcile-interval:3600000}")
+    public void reconcile() {
+        if(!loaded) return;
+        lock.lock();
+        try {
+            drain();
+            reconcileCounts();
+            rank();
+        } catch (DataAccessException e) {
+            log.warn("No se pudieron reconciliar los contadores de popularidad", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Devuelve si se escribió algún incremento.
+     */
+    private boolean drain() {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>();
+        pending.forEach((mangaId, counters) -> {
+            long net = counters.net.sumThenReset();
+            long added = counters.added.sumThenReset();
+            if(net != 0 || added != 0) batch.add(new Object[]{mangaId, net, (double) added, now, net, halfLifeSeconds()});
+        });
+        if(batch.isEmpty()) return false;
+
+        try {
+            jdbcTemplate.batchUpdate(UPSERT, batch);
+        } catch (DataAccessException e) {
+            // Los incrementos vuelven a los acumuladores para el siguiente intento
+            batch.forEach(row -> {
+                Delta counters = pending.computeIfAbsent((String) row[0], key -> new Delta());
+                counters.net.add((long) row[1]);
+                counters.added.add((long) (double) row[2]);
+            });
+            throw e;
+        }
+        return true;
+    }
+
+    private void reconcileCounts() {
+        jdbcTemplate.update(RECONCILE_COUNTS, Timestamp.from(Instant.now()));
+        jdbcTemplate.update(RECONCILE_ORPHANS);
+    }
+
+    private void rank() {
+        Timestamp now = Timestamp.from(Instant.now());
+        trending = List.copyOf(jdbcTemplate.query(TOP_TRENDING, RANKED, now, halfLifeSeconds(), topK));
+        popular = List.copyOf(jdbcTemplate.query(TOP_FAVORITES, RANKED, now, halfLifeSeconds(), topK));
+        ranked = true;
+        rankedAt = System.nanoTime();
+    }
+
+    private double halfLifeSeconds() {
+        return halfLife.toMillis() / 1000.0;
+    }
+}
@@ -12,6 +12,7 @@ import com.jagt1806.mangareader.model.Users;
 import com.jagt1806.mangareader.repository.FavoritesRepository;
 import com.jagt1806.mangareader.repository.UsersRepository;
 import com.jagt1806.mangareader.service.ImgService;
+import com.jagt1806.mangareader.service.ReadingProgressService;
 import com.jagt1806.mangareader.service.UserService;
 import com.jagt1806.mangareader.util.MessageUtil;
 import jakarta.transaction.Transactional;
@@ -38,6 +39,7 @@ public class UserServiceImp implements UserService {
     private final ImgService imgService;
     private final UsersRepository usersRepository;
     private final FavoritesRepository favoritesRepository;
+    private final ReadingProgressService readingProgressService;
     private final PasswordEncoder passwordEncoder;
     private final MessageUtil messageUtil;
 
@@ -86,6 +88,7 @@ public class UserServiceImp implements UserService {
     public void deleteUser(Long id) {
       if(!usersRepository.existsById(id)) throw new UserNotFoundException(null);
       favoritesRepository.deleteAllByUserId_Id(id);
+      readingProgressService.deleteProgressByUserId(id);
       usersRepository.deleteById(id);
     }
 
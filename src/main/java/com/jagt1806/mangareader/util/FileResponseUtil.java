@@ -0,0 +1,103 @@
+package com.jagt1806.mangareader.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Sirve ficheros de las cachés en disco. Con Tomcat se delega el envío en sendfile (copia sin pasar
+ * por el espacio de usuario): la respuesta sale sin cuerpo y el conector manda el rango indicado en
+ * los atributos de la petición. Si el conector no lo soporta, el fichero se abre antes de devolver la
+ * respuesta, de modo que un borrado posterior no afecta a la copia ya en marcha.
+ */
+@Component
+public class FileResponseUtil {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    public ResponseEntity<StreamingResponseBody> serve(Path file, long size, String etag, MediaType mediaType,
+                                                       CacheControl cacheControl, String ifNoneMatch, String range) {
+        if(ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        if(range != null) {
+            try {
+                List<HttpRange> ranges = HttpRange.parseRanges(range);
+                if(ranges.size() == 1) {
+                    long start = ranges.get(0).getRangeStart(size);
+                    long end = ranges.get(0).getRangeEnd(size);
+                    return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                            .eTag(etag)
+                            .cacheControl(cacheControl)
+                            .contentType(mediaType)
+                            .contentLength(end - start + 1)
+                            .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size)
+                            .body(transfer(file, start, end - start + 1));
+                }
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                        .build();
+            }
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(mediaType)
+                .contentLength(size)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(transfer(file, 0, size));
+    }
+
+    private StreamingResponseBody transfer(Path file, long position, long count) {
+        HttpServletRequest request = currentRequest();
+        if(request != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, position);
+            request.setAttribute(SENDFILE_END, position + count);
+            return null;
+        }
+
+        FileChannel opened;
+        try {
+            opened = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out -> {
+            try (FileChannel channel = opened) {
+                // Sin sendfile el destino es el stream del servlet, así que esto es una copia en espacio de usuario
+                WritableByteChannel target = Channels.newChannel(out);
+                long sent = 0;
+                while(sent < count) {
+                    long transferred = channel.transferTo(position + sent, count - sent, target);
+                    if(transferred <= 0) break;
+                    sent += transferred;
+                }
+            }
+        };
+    }
+
+    private HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.jagt1806.mangareader.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializa respuestas JSON con un ETag fuerte. Con {@link #serve} los bytes, el hash y, bajo demanda, gzip
+ * se guardan por identidad del objeto (weakKeys): solo sirve para instancias que salen de una caché,
+ * que se serializan, comprimen y hashean la primera vez y después responden 304 sin tocar Jackson.
+ * Las respuestas que se construyen en cada petición usan {@link #serveFresh}, que no las memoriza.
+ */
+@Component
+@RequiredArgsConstructor
+public class JsonResponseUtil {
+    private static final String GZIP = "gzip";
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${server.compression.min-response-size:1KB}")
+    private DataSize minCompressSize;
+
+    // Sin límite de tamaño: con weakKeys cada entrada vive exactamente lo que la instancia cacheada a la
+    // que acompaña, así que las variantes se descartan a la vez que el valor sale de su caché
+    private final Cache<Object, RenderedBody> rendered = Caffeine.newBuilder()
+            .weakKeys()
+            .build();
+
+    /**
+     * La versión gzip se calcula la primera vez que un cliente que la acepta pide el cuerpo completo;
+     * los clientes sin gzip y los 304 nunca comprimen.
+     */
+    private static final class RenderedBody {
+        private final byte[] json;
+        private final String etag;
+        private final boolean compressible;
+        private volatile byte[] gzip;
+
+        private RenderedBody(byte[] json, String etag, boolean compressible) {
+            this.json = json;
+            this.etag = etag;
+            this.compressible = compressible;
+        }
+
+        private byte[] gzip() {
+            byte[] compressed = gzip;
+            if(compressed == null) gzip = compressed = compress(json);
+            return compressed;
+        }
+    }
+
+    public ResponseEntity<byte[]> serve(Object body, CacheControl cacheControl, String ifNoneMatch, String acceptEncoding) {
+        return respond(rendered.get(body, this::render), cacheControl, ifNoneMatch, acceptEncoding);
+    }
+
+    public ResponseEntity<byte[]> serveFresh(Object body, CacheControl cacheControl, String ifNoneMatch, String acceptEncoding) {
+        return respond(render(body), cacheControl, ifNoneMatch, acceptEncoding);
+    }
+
+    private ResponseEntity<byte[]> respond(RenderedBody renderedBody, CacheControl cacheControl, String ifNoneMatch, String acceptEncoding) {
+        boolean gzip = renderedBody.compressible && accepts(acceptEncoding, GZIP);
+        // Cada codificación es una representación distinta y necesita su propio ETag fuerte
+        String etag = gzip ? renderedBody.etag.replaceFirst("\"$", "-gzip\"") : renderedBody.etag;
+
+        if(ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if(gzip) return builder.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(renderedBody.gzip());
+        return builder.body(renderedBody.json);
+    }
+
+    private RenderedBody render(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return new RenderedBody(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"", json.length >= minCompressSize.toBytes());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private boolean accepts(String acceptEncoding, String encoding) {
+        if(acceptEncoding == null) return false;
+        for(String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if(!tokens[0].trim().equalsIgnoreCase(encoding)) continue;
+            for(int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim();
+                if(param.startsWith("q=") && quality(param.substring(2)) == 0) return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private double quality(String value) {
+        // Un q mal formado en la cabecera del cliente se trata como "no aceptado", nunca como error
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
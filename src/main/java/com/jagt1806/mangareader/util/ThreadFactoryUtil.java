@@ -0,0 +1,18 @@
+package com.jagt1806.mangareader.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+
+@Component
+public class ThreadFactoryUtil {
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtual;
+
+    public ThreadFactory create(String prefix) {
+        if(virtual) return Thread.ofVirtual().name(prefix, 1).factory();
+        return new CustomizableThreadFactory(prefix);
+    }
+}
@@ -0,0 +1,47 @@
+package com.jagt1806.mangareader.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachedValueTests {
+    @Test
+    void isUsableUntilTheStaleDeadline() {
+        CachedValue<String> value = new CachedValue<>("v", 0, 100, 200, 10);
+
+        assertThat(value.isUsable(199)).isTrue();
+        assertThat(value.isUsable(200)).isFalse();
+    }
+
+    @Test
+    void alwaysNeedsRefreshOnceExpired() {
+        CachedValue<String> value = new CachedValue<>("v", 0, 100, 200, 0);
+
+        assertThat(value.needsRefresh(100, 1.0)).isTrue();
+        assertThat(value.needsRefresh(150, 0.0)).isTrue();
+    }
+
+    @Test
+    void cheapOrUnweightedLoadsNeverRefreshEarly() {
+        CachedValue<String> free = new CachedValue<>("v", 0, 100, 200, 0);
+        CachedValue<String> expensive = new CachedValue<>("v", 0, 100, 200, 1_000);
+
+        assertThat(IntStream.range(0, 1_000).anyMatch(i -> free.needsRefresh(99, 1.0))).isFalse();
+        assertThat(IntStream.range(0, 1_000).anyMatch(i -> expensive.needsRefresh(99, 0.0))).isFalse();
+    }
+
+    @Test
+    void expensiveLoadsRefreshEarlierThanCheapOnes() {
+        CachedValue<String> cheap = new CachedValue<>("v", 0, 1_000, 2_000, 10);
+        CachedValue<String> expensive = new CachedValue<>("v", 0, 1_000, 2_000, 10_000);
+
+        long cheapRefreshes = IntStream.range(0, 1_000).filter(i -> cheap.needsRefresh(900, 1.0)).count();
+        long expensiveRefreshes = IntStream.range(0, 1_000).filter(i -> expensive.needsRefresh(900, 1.0)).count();
+
+        // P(refresco) = exp(-margen / (coste * beta)): ~0 para la carga barata, ~99 % para la cara
+        assertThat(cheapRefreshes).isLessThan(10);
+        assertThat(expensiveRefreshes).isGreaterThan(950);
+    }
+}
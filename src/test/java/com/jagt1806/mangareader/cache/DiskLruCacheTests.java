@@ -0,0 +1,121 @@
+package com.jagt1806.mangareader.cache;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DiskLruCacheTests {
+    @TempDir
+    Path root;
+
+    @Test
+    void putStoresUnderTheKeyPath() throws IOException {
+        DiskLruCache cache = new DiskLruCache(root, 100);
+
+        Path stored = cache.put("hash/data/1.jpg", write("abc"));
+
+        assertThat(stored).isEqualTo(root.resolve("hash/data/1.jpg").toAbsolutePath().normalize());
+        assertThat(Files.readString(stored)).isEqualTo("abc");
+        assertThat(cache.get("hash/data/1.jpg")).contains(stored);
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    void theLeastRecentlyUsedEntryIsEvictedFirst() {
+        DiskLruCache cache = new DiskLruCache(root, 10);
+        cache.put("a", write("1234"));
+        cache.put("b", write("1234"));
+        cache.get("a");
+
+        cache.put("c", write("1234"));
+
+        assertThat(cache.get("a")).isPresent();
+        assertThat(cache.get("b")).isEmpty();
+        assertThat(cache.get("c")).isPresent();
+        assertThat(cache.size()).isEqualTo(8);
+    }
+
+    @Test
+    void evictedFilesStayOnDiskDuringTheGracePeriod() {
+        DiskLruCache cache = new DiskLruCache(root, 4);
+        Path first = cache.put("a", write("1234"));
+
+        cache.put("b", write("1234"));
+
+        assertThat(cache.get("a")).isEmpty();
+        // Una respuesta que ya tenía la ruta todavía puede abrirla
+        assertThat(first).exists();
+    }
+
+    @Test
+    void aNewEntryLargerThanTheBudgetIsKept() {
+        DiskLruCache cache = new DiskLruCache(root, 2);
+
+        cache.put("big", write("12345"));
+
+        assertThat(cache.get("big")).isPresent();
+    }
+
+    @Test
+    void aFailedWriteLeavesNoEntryOrTemporaryFile() throws IOException {
+        DiskLruCache cache = new DiskLruCache(root, 100);
+
+        assertThatThrownBy(() -> cache.put("a", target -> {
+            throw new UncheckedIOException(new IOException("download failed"));
+        })).isInstanceOf(UncheckedIOException.class);
+
+        assertThat(cache.get("a")).isEmpty();
+        try (var files = Files.list(root)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void keysCannotEscapeTheRoot() {
+        DiskLruCache cache = new DiskLruCache(root, 100);
+
+        assertThatThrownBy(() -> cache.put("../outside", write("x"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void existingFilesAreReloadedAndLeftoverTemporariesRemoved() throws IOException {
+        Files.createDirectories(root.resolve("hash/data"));
+        Files.writeString(root.resolve("hash/data/1.jpg"), "abc");
+        Files.writeString(root.resolve("tmp-123.part"), "partial");
+
+        DiskLruCache cache = new DiskLruCache(root, 100);
+
+        assertThat(cache.get("hash/data/1.jpg")).isPresent();
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(root.resolve("tmp-123.part")).doesNotExist();
+    }
+
+    @Test
+    void moveIntoCreatesTheParentDirectories() throws IOException {
+        Path temp = Files.writeString(Files.createTempFile(root, "tmp-", ".part"), "abc");
+        Path target = root.resolve("hash/data/1.jpg");
+
+        DeferredDeletes.moveInto(temp, target);
+
+        assertThat(target).hasContent("abc");
+        assertThat(temp).doesNotExist();
+    }
+
+    private Consumer<Path> write(String content) {
+        return target -> {
+            try {
+                Files.writeString(target, content);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package com.jagt1806.mangareader.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagt1806.mangareader.client.StaleResponses;
+import com.jagt1806.mangareader.model.CacheEntry;
+import com.jagt1806.mangareader.repository.CacheEntryRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TieredCacheTests {
+    private final CacheEntryRepository repository = mock(CacheEntryRepository.class);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void aMissIsLoadedOnceAndWrittenToBothTiers() {
+        TieredCache<String> cache = cache(Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        assertThat(cache.get("key", this::load)).isEqualTo("value-1");
+        assertThat(cache.get("key", this::load)).isEqualTo("value-1");
+
+        assertThat(loads).hasValue(1);
+        verify(repository).save(any(CacheEntry.class));
+    }
+
+    @Test
+    void aUsableRemoteEntrySkipsTheLoader() {
+        Instant now = Instant.now();
+        when(repository.findById(anyString())).thenReturn(Optional.of(new CacheEntry(
+                "id", "test", "\"shared\"", now, now.plus(Duration.ofMinutes(5)), now.plus(Duration.ofMinutes(6)), 0
+        )));
+        TieredCache<String> cache = cache(Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        assertThat(cache.get("key", this::load)).isEqualTo("shared");
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void aStaleRemoteEntryIsIgnored() {
+        Instant past = Instant.now().minus(Duration.ofHours(1));
+        when(repository.findById(anyString())).thenReturn(Optional.of(new CacheEntry(
+                "id", "test", "\"old\"", past, past.plusSeconds(1), past.plusSeconds(2), 0
+        )));
+        TieredCache<String> cache = cache(Duration.ofMinutes(5), Duration.ofMinutes(1));
+
+        assertThat(cache.get("key", this::load)).isEqualTo("value-1");
+    }
+
+    @Test
+    void anExpiredValueIsServedWhileItRefreshes() {
+        TieredCache<String> cache = cache(Duration.ZERO, Duration.ofMinutes(1));
+
+        assertThat(cache.get("key", this::load)).isEqualTo("value-1");
+        // Caducado pero dentro de la ventana stale: se sirve el anterior y se refresca detrás
+        assertThat(cache.get("key", this::load)).isEqualTo("value-1");
+        assertThat(loads).hasValue(2);
+        assertThat(cache.get("key", this::load)).isEqualTo("value-2");
+    }
+
+    @Test
+    void fallbackValuesAreReturnedButNotCached() {
+        TieredCache<String> cache = cache(Duration.ofMinutes(5), Duration.ofMinutes(1));
+        AtomicInteger fallbacks = new AtomicInteger();
+
+        for(int i = 0; i < 2; i++) {
+            assertThat(cache.get("key", () -> {
+                fallbacks.incrementAndGet();
+                StaleResponses.mark();
+                return "fallback";
+            })).isEqualTo("fallback");
+        }
+
+        assertThat(fallbacks).hasValue(2);
+        verify(repository, never()).save(any(CacheEntry.class));
+    }
+
+    private String load() {
+        return "value-" + loads.incrementAndGet();
+    }
+
+    private TieredCache<String> cache(Duration ttl, Duration stale) {
+        // Ejecutor síncrono: los refrescos y escrituras ocurren dentro de get
+        return new TieredCache<>("test", String.class, ttl, stale, 100, 1.0, repository, new ObjectMapper(), Runnable::run);
+    }
+}
@@ -0,0 +1,89 @@
+package com.jagt1806.mangareader.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTests {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void staysClosedUntilTheMinimumNumberOfCalls() {
+        CircuitBreaker breaker = new CircuitBreaker(registry, "search", 10, 4, 50, Duration.ofMinutes(1));
+
+        for(int i = 0; i < 3; i++) breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void opensWhenTheFailureRateIsReached() {
+        CircuitBreaker breaker = new CircuitBreaker(registry, "search", 10, 4, 50, Duration.ofMinutes(1));
+
+        breaker.onSuccess();
+        breaker.onSuccess();
+        breaker.onFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void oldResultsLeaveTheSlidingWindow() {
+        CircuitBreaker breaker = new CircuitBreaker(registry, "search", 4, 4, 75, Duration.ofMinutes(1));
+
+        breaker.onFailure();
+        breaker.onFailure();
+        for(int i = 0; i < 4; i++) breaker.onSuccess();
+        // Los dos fallos ya salieron de la ventana: 2 de 4 no llega al 75 %
+        breaker.onFailure();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpenLetsASingleTrialThrough() {
+        CircuitBreaker breaker = new CircuitBreaker(registry, "search", 2, 1, 100, Duration.ZERO);
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void aFailedTrialOpensAgain() {
+        CircuitBreaker breaker = new CircuitBreaker(registry, "search", 2, 1, 100, Duration.ofMinutes(1));
+        breaker.onFailure();
+        // Como si ya hubiera pasado el tiempo de apertura
+        ReflectionTestUtils.setField(breaker, "openedAt", System.nanoTime() - Duration.ofMinutes(2).toNanos());
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void anIgnoredTrialFreesTheSlot() {
+        CircuitBreaker breaker = new CircuitBreaker(registry, "search", 2, 1, 100, Duration.ZERO);
+        breaker.onFailure();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onIgnored();
+
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+}
@@ -0,0 +1,127 @@
+package com.jagt1806.mangareader.client;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.jagt1806.mangareader.dto.api.Manga;
+import com.jagt1806.mangareader.dto.api.MangaData;
+import com.jagt1806.mangareader.dto.api.MangaList;
+import com.jagt1806.mangareader.dto.api.attributes.MangaAttributes;
+import feign.Request;
+import feign.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MangaDexDecoderTests {
+    private static final String MANGA = """
+            {
+              "id": "m1",
+              "type": "manga",
+              "attributes": {
+                "title": {"en": "Frieren", "ja-ro": "Sousou no Frieren"},
+                "altTitles": [{"es": "Frieren: Más allá del final del viaje"}, {"ja": "葬送のフリーレン"}],
+                "description": {"en": "An elf mage.", "es": "Una maga elfa.", "fr": "Une mage elfe."},
+                "contentRating": "safe",
+                "status": "ongoing",
+                "links": {"al": "118586", "nested": {"deep": [1, 2, 3]}},
+                "tags": [{"id": "t1", "type": "tag", "attributes": {"name": {"en": "Fantasy", "es": "Fantasía"}, "group": "genre"}}],
+                "updatedAt": "2024-05-01T10:00:00+00:00"
+              },
+              "relationships": [
+                {"id": "a1", "type": "author", "attributes": {"name": "Kanehito Yamada"}},
+                {"id": "c1", "type": "cover_art", "attributes": {"fileName": "cover.jpg", "volume": "1"}}
+              ]
+            }""";
+
+    // Como el ObjectMapper de Spring Boot, que ignora los campos desconocidos
+    private final MangaDexDecoder decoder = new MangaDexDecoder(
+            new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+
+    @Test
+    void listsKeepOnlyTheRequestedDescriptionsAndTheCover() {
+        MangaList list = (MangaList) decode("""
+                {"result": "ok", "response": "collection", "data": [%s], "limit": 10, "offset": 20, "total": 321}
+                """.formatted(MANGA), MangaList.class, List.of("es", "es-la"));
+
+        assertThat(list.getOffset()).isEqualTo(20);
+        assertThat(list.getLimit()).isEqualTo(10);
+        assertThat(list.getTotal()).isEqualTo(321);
+        assertThat(list.getData()).singleElement().satisfies(data -> {
+            MangaAttributes attributes = data.getAttributes();
+            assertThat(data.getId()).isEqualTo("m1");
+            assertThat(attributes.getTitle()).containsOnlyKeys("en", "ja-ro");
+            assertThat(attributes.getAltTitles()).hasSize(2);
+            assertThat(attributes.getDescription()).containsExactly(Map.entry("es", "Una maga elfa."));
+            assertThat(attributes.getContentRating()).isEqualTo("safe");
+            assertThat(attributes.getStatus()).isEqualTo("ongoing");
+            assertThat(attributes.getUpdatedAt()).isEqualTo("2024-05-01T10:00:00+00:00");
+            assertThat(attributes.getTags()).singleElement().satisfies(tag -> {
+                assertThat(tag.getId()).isEqualTo("t1");
+                assertThat(tag.getAttributes().getName()).containsOnlyKeys("en");
+                assertThat(tag.getAttributes().getGroup()).isEqualTo("genre");
+            });
+            assertThat(data.getRelationships()).singleElement().satisfies(relationship -> {
+                assertThat(relationship.getId()).isEqualTo("c1");
+                assertThat(relationship.getAttributes().getFileName()).isEqualTo("cover.jpg");
+            });
+        });
+    }
+
+    @Test
+    void aSingleMangaIsDecodedTheSameWay() {
+        Manga manga = (Manga) decode("{\"result\": \"ok\", \"data\": %s}".formatted(MANGA), Manga.class, List.of("en"));
+
+        MangaData data = manga.getData();
+        assertThat(data.getAttributes().getDescription()).containsOnlyKeys("en");
+        assertThat(data.getRelationships()).extracting(relationship -> relationship.getType()).containsExactly("cover_art");
+    }
+
+    @Test
+    void emptyMapsSerializedAsArraysAndNullsAreTolerated() {
+        MangaList list = (MangaList) decode("""
+                {"data": [{"id": "m2", "attributes": {"title": {"en": "Empty"}, "description": [], "altTitles": [[], null],
+                 "tags": []}, "relationships": [{"id": "c2", "type": "cover_art"}]}]}
+                """, MangaList.class, List.of("en"));
+
+        MangaData data = list.getData().get(0);
+        assertThat(data.getAttributes().getDescription()).isEmpty();
+        assertThat(data.getAttributes().getAltTitles()).isEmpty();
+        assertThat(data.getAttributes().getTags()).isEmpty();
+        assertThat(data.getRelationships()).singleElement().satisfies(relationship -> assertThat(relationship.getAttributes()).isNull());
+    }
+
+    @Test
+    void withoutALanguageTheResponseIsFullyDatabound() {
+        MangaList list = (MangaList) decode("{\"data\": [%s], \"total\": 1}".formatted(MANGA), MangaList.class, null);
+
+        MangaData data = list.getData().get(0);
+        assertThat(data.getAttributes().getDescription()).containsOnlyKeys("en", "es", "fr");
+        assertThat(data.getRelationships()).hasSize(2);
+    }
+
+    private Object decode(String json, Type type, List<String> languages) {
+        Response response = Response.builder()
+                .status(200)
+                .request(Request.create(Request.HttpMethod.GET, "https://api.mangadex.org/manga", Map.of(), null, StandardCharsets.UTF_8, null))
+                .headers(Map.of())
+                .body(json, StandardCharsets.UTF_8)
+                .build();
+        if(languages == null) return decode(response, type);
+        return DecodeLanguage.with(languages, () -> decode(response, type));
+    }
+
+    private Object decode(Response response, Type type) {
+        try {
+            return decoder.decode(response, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
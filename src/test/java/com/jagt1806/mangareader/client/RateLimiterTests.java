@@ -0,0 +1,57 @@
+package com.jagt1806.mangareader.client;
+
+import com.jagt1806.mangareader.exceptions.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RateLimiterTests {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private RateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new RateLimiter(registry);
+        // Casi sin reposición: cada test controla exactamente cuántos tokens hay
+        ReflectionTestUtils.setField(limiter, "permitsPerSecond", 0.001);
+        ReflectionTestUtils.setField(limiter, "burst", 3);
+        ReflectionTestUtils.setField(limiter, "reserve", 1);
+        ReflectionTestUtils.setField(limiter, "interactiveTimeout", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(limiter, "backgroundTimeout", Duration.ofMillis(50));
+        limiter.init();
+    }
+
+    @Test
+    void theBurstIsServedAtOnceAndThenCallsAreRejected() {
+        for(int i = 0; i < 3; i++) assertThatCode(() -> limiter.acquire(RequestLane.INTERACTIVE)).doesNotThrowAnyException();
+
+        assertThatThrownBy(() -> limiter.acquire(RequestLane.INTERACTIVE)).isInstanceOf(RateLimitExceededException.class);
+        assertThat(registry.get("mangadex.ratelimit.rejected").tag("lane", "interactive").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void backgroundLeavesTheReserveForInteractiveCalls() {
+        limiter.acquire(RequestLane.BACKGROUND);
+
+        // Quedan 2 tokens: el segundo plano necesita 1 + reserva y se queda sin el último
+        limiter.acquire(RequestLane.BACKGROUND);
+        assertThatThrownBy(() -> limiter.acquire(RequestLane.BACKGROUND)).isInstanceOf(RateLimitExceededException.class);
+        assertThatCode(() -> limiter.acquire(RequestLane.INTERACTIVE)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void pauseEmptiesTheBucket() {
+        limiter.pause(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> limiter.acquire(RequestLane.INTERACTIVE)).isInstanceOf(RateLimitExceededException.class);
+        assertThat(registry.get("mangadex.ratelimit.tokens").gauge().value()).isLessThan(1);
+    }
+}
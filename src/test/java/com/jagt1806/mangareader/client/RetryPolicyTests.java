@@ -0,0 +1,52 @@
+package com.jagt1806.mangareader.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RetryPolicyTests {
+    @Test
+    void retriesAreLimitedPerCall() {
+        RetryPolicy policy = new RetryPolicy(2, 0.1, 10, Duration.ZERO, Duration.ZERO);
+
+        assertThat(policy.tryRetry(0)).isTrue();
+        assertThat(policy.tryRetry(1)).isTrue();
+        assertThat(policy.tryRetry(2)).isFalse();
+    }
+
+    @Test
+    void theBudgetRunsOutAndRefillsWithCalls() {
+        RetryPolicy policy = new RetryPolicy(3, 0.5, 2, Duration.ZERO, Duration.ZERO);
+
+        assertThat(policy.tryRetry(0)).isTrue();
+        assertThat(policy.tryRetry(0)).isTrue();
+        assertThat(policy.tryRetry(0)).isFalse();
+
+        // Cada llamada aporta ratio: hacen falta dos para un reintento
+        policy.deposit();
+        assertThat(policy.tryRetry(0)).isFalse();
+        policy.deposit();
+        assertThat(policy.tryRetry(0)).isTrue();
+    }
+
+    @Test
+    void theBudgetNeverExceedsItsMaximum() {
+        RetryPolicy policy = new RetryPolicy(3, 1, 2, Duration.ZERO, Duration.ZERO);
+
+        for(int i = 0; i < 10; i++) policy.deposit();
+
+        assertThat(policy.remaining()).isEqualTo(2);
+    }
+
+    @Test
+    void backoffNeverWaitsMoreThanTheCap() {
+        RetryPolicy policy = new RetryPolicy(3, 1, 2, Duration.ofMillis(10), Duration.ofMillis(20));
+
+        long start = System.nanoTime();
+        for(int attempt = 0; attempt < 5; attempt++) policy.backoff(attempt);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(1));
+    }
+}
@@ -0,0 +1,77 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.manga.FacetResultDTO;
+import com.jagt1806.mangareader.repository.CatalogMangaRepository;
+import com.jagt1806.mangareader.service.FacetService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FacetServiceImpTests {
+    private static final List<String> SAFE = List.of("safe", "suggestive");
+    private static final List<String> ALL = List.of("safe", "suggestive", "erotica", "pornographic");
+
+    private final CatalogMangaRepository repository = mock(CatalogMangaRepository.class);
+
+    private FacetServiceImp service;
+
+    @BeforeEach
+    void setUp() {
+        when(repository.findFacetRows()).thenReturn(List.of(
+                new Object[]{"a", "safe", "ongoing", new String[]{"en"}, new String[]{"action"}},
+                new Object[]{"b", "suggestive", "completed", new String[]{"en", "es"}, new String[]{"action", "romance"}},
+                new Object[]{"c", "pornographic", "completed", new String[]{"en"}, new String[]{"romance"}},
+                new Object[]{"d", "erotica", "ongoing", new String[]{"es"}, new String[]{"action"}}
+        ));
+        service = new FacetServiceImp(repository, new SimpleMeterRegistry());
+        service.init();
+        service.rebuild();
+    }
+
+    @Test
+    void allowedRatingsAreAlwaysABaseFilter() {
+        FacetResultDTO result = service.search(Map.of(), SAFE, 0, 10);
+
+        assertThat(result.getIds()).containsExactly("a", "b");
+        assertThat(result.getFacets().get(FacetService.RATING)).containsOnlyKeys("safe", "suggestive");
+        assertThat(result.getFacets().get(FacetService.TAG)).containsEntry("action", 2).containsEntry("romance", 1);
+    }
+
+    @Test
+    void explicitRatingsNarrowButNeverWiden() {
+        FacetResultDTO result = service.search(Map.of(FacetService.RATING, List.of("pornographic", "safe")), SAFE, 0, 10);
+
+        assertThat(result.getIds()).containsExactly("a");
+        assertThat(result.getTotal()).isEqualTo(1);
+        // El recuento del propio campo ignora su selección pero no el filtro base
+        assertThat(result.getFacets().get(FacetService.RATING)).containsOnly(Map.entry("safe", 1), Map.entry("suggestive", 1));
+
+        assertThat(service.search(Map.of(FacetService.RATING, List.of("pornographic")), SAFE, 0, 10).getIds()).isEmpty();
+    }
+
+    @Test
+    void fieldsAreOrWithinAndAndAcross() {
+        FacetResultDTO result = service.search(Map.of(
+                FacetService.TAG, List.of("romance"),
+                FacetService.STATUS, List.of("completed", "ongoing")
+        ), ALL, 0, 10);
+
+        assertThat(result.getIds()).containsExactly("b", "c");
+        assertThat(result.getFacets().get(FacetService.TAG)).containsEntry("action", 3).containsEntry("romance", 2);
+    }
+
+    @Test
+    void pagesFollowDocumentOrder() {
+        FacetResultDTO result = service.search(Map.of(), ALL, 1, 2);
+
+        assertThat(result.getIds()).containsExactly("b", "c");
+        assertThat(result.getTotal()).isEqualTo(4);
+    }
+}
@@ -0,0 +1,178 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.progress.ReadingProgressDTO;
+import com.jagt1806.mangareader.exceptions.ProgressNotFoundException;
+import com.jagt1806.mangareader.http.request.progress.ReadingProgressRequest;
+import com.jagt1806.mangareader.repository.ReadingProgressRepository;
+import com.jagt1806.mangareader.util.MessageUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReadingProgressServiceImpTests {
+    private final ReadingProgressRepository repository = mock(ReadingProgressRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<List<ReadingProgressDTO>> batches = new ArrayList<>();
+
+    private ReadingProgressServiceImp service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ReadingProgressServiceImp(repository, jdbcTemplate, mock(MessageUtil.class), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        service.init();
+        when(repository.findByUserIdAndMangaId(anyLong(), anyString())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void flushWritesOnlyTheLatestReportPerUserAndManga() {
+        recordBatches();
+        report(1L, "manga", "chapter-1", 3);
+        report(1L, "manga", "chapter-1", 7);
+        report(1L, "manga", "chapter-2", 0);
+
+        service.flush();
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).singleElement()
+                .satisfies(progress -> {
+                    assertThat(progress.getChapterId()).isEqualTo("chapter-2");
+                    assertThat(progress.getPage()).isZero();
+                });
+        assertThatThrownBy(() -> service.getProgress(1L, "manga")).isInstanceOf(ProgressNotFoundException.class);
+    }
+
+    @Test
+    void flushSplitsTheBatchBySize() {
+        recordBatches();
+        for(long user = 1; user <= 5; user++) report(user, "manga", "chapter", 1);
+
+        service.flush();
+
+        assertThat(batches).extracting(List::size).containsExactlyInAnyOrder(2, 2, 1);
+    }
+
+    @Test
+    void reportArrivingDuringFlushStaysForTheNextOne() {
+        doAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.<Collection<ReadingProgressDTO>>getArgument(1)));
+            if(batches.size() == 1) report(1L, "manga", "chapter-2", 5);
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        report(1L, "manga", "chapter-1", 1);
+
+        service.flush();
+        assertThat(service.getProgress(1L, "manga").getChapterId()).isEqualTo("chapter-2");
+
+        service.flush();
+        assertThat(batches).hasSize(2);
+        assertThat(batches.get(1)).singleElement().extracting(ReadingProgressDTO::getChapterId).isEqualTo("chapter-2");
+    }
+
+    @Test
+    void failedBatchIsRequeuedWithoutOverwritingNewerReports() {
+        doAnswer(invocation -> {
+            report(1L, "newer", "chapter-2", 9);
+            throw new DataAccessResourceFailureException("down");
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        report(1L, "newer", "chapter-1", 1);
+        report(1L, "other", "chapter-1", 4);
+
+        service.flush();
+
+        assertThat(service.getProgress(1L, "newer").getChapterId()).isEqualTo("chapter-2");
+        assertThat(service.getProgress(1L, "other").getPage()).isEqualTo(4);
+    }
+
+    @Test
+    void oversizedIdsAndPagesAreRejectedAtReportTime() {
+        String longId = "x".repeat(65);
+
+        assertThatThrownBy(() -> report(1L, longId, "chapter", 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> report(1L, "manga", longId, 1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> report(1L, "manga", "chapter", 10_001)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> report(1L, " ", "chapter", 1)).isInstanceOf(IllegalArgumentException.class);
+
+        service.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void dataErrorsRetryRowByRowAndDropOnlyTheBadRow() {
+        doAnswer(invocation -> {
+            throw new DataIntegrityViolationException("value too long");
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        when(jdbcTemplate.update(anyString(), eq(2L), any(), any(), any(), any()))
+                .thenThrow(new DataIntegrityViolationException("value too long"));
+        report(1L, "manga", "chapter", 1);
+        report(2L, "manga", "chapter", 1);
+
+        service.flush();
+
+        verify(jdbcTemplate).update(anyString(), eq(1L), any(), any(), any(), any());
+        verify(jdbcTemplate).update(anyString(), eq(2L), any(), any(), any(), any());
+        assertThatThrownBy(() -> service.getProgress(2L, "manga")).isInstanceOf(ProgressNotFoundException.class);
+
+        service.flush();
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    void deleteWaitsForAFlushThatAlreadyDrainedTheUser() throws Exception {
+        CompletableFuture<Void> deletion = new CompletableFuture<>();
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> service.deleteProgressByUserId(1L))
+                    .whenComplete((result, error) -> deletion.complete(null));
+            // El borrado no puede terminar mientras el flush tiene el lock
+            assertThat(deletion.isDone()).isFalse();
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        report(1L, "manga", "chapter", 1);
+
+        service.flush();
+        deletion.get(5, TimeUnit.SECONDS);
+
+        var order = inOrder(jdbcTemplate, repository);
+        order.verify(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+        order.verify(repository).deleteAllByUserId(1L);
+    }
+
+    private void recordBatches() {
+        doAnswer(invocation -> {
+            batches.add(List.copyOf(invocation.<Collection<ReadingProgressDTO>>getArgument(1)));
+            return new int[0][];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyCollection(), anyInt(), any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    private void report(Long userId, String mangaId, String chapterId, int page) {
+        service.reportProgress(userId, new ReadingProgressRequest(mangaId, chapterId, page));
+    }
+}
@@ -0,0 +1,69 @@
+package com.jagt1806.mangareader.service.imp;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SimilarServiceImpTests {
+
+    @Test
+    void topNKeepsTheBestAndDrainsThemDescending() {
+        SimilarServiceImp.TopN top = new SimilarServiceImp.TopN(3);
+        float[] scores = {0.5f, 0.1f, 0.9f, 0.3f, 0.7f};
+        for(int item = 0; item < scores.length; item++) top.offer(item, item + 10, scores[item]);
+
+        int[] items = new int[7];
+        int[] together = new int[7];
+        float[] out = new float[7];
+        int count = top.drainDescending(items, together, out, 4);
+
+        assertThat(count).isEqualTo(3);
+        assertThat(items).containsExactly(0, 0, 0, 0, 2, 4, 0);
+        assertThat(together).containsExactly(0, 0, 0, 0, 12, 14, 10);
+        assertThat(out).containsExactly(0f, 0f, 0f, 0f, 0.9f, 0.7f, 0.5f);
+    }
+
+    @Test
+    void topNDrainsPartialHeapsAndCanBeReused() {
+        SimilarServiceImp.TopN top = new SimilarServiceImp.TopN(4);
+        top.offer(1, 1, 0.2f);
+        top.offer(2, 1, 0.8f);
+
+        int[] items = new int[4];
+        int[] together = new int[4];
+        float[] scores = new float[4];
+        assertThat(top.drainDescending(items, together, scores, 0)).isEqualTo(2);
+        assertThat(items).startsWith(2, 1);
+
+        top.clear();
+        top.offer(3, 1, 0.4f);
+        assertThat(top.drainDescending(items, together, scores, 0)).isEqualTo(1);
+        assertThat(items[0]).isEqualTo(3);
+    }
+
+    @Test
+    void topNWithoutCapacityKeepsNothing() {
+        SimilarServiceImp.TopN top = new SimilarServiceImp.TopN(0);
+        top.offer(1, 1, 1f);
+
+        assertThat(top.drainDescending(new int[0], new int[0], new float[0], 0)).isZero();
+    }
+
+    @Test
+    void invertBuildsItemUsersAndSkipsUselessUsers() {
+        SimilarServiceImp service = new SimilarServiceImp(null, null, null, null);
+        ReflectionTestUtils.setField(service, "maxUserFavorites", 3);
+
+        // Usuario 2 con un solo favorito y usuario 3 por encima del máximo: ninguno aporta pares
+        int[] userOffsets = {0, 2, 5, 6, 10};
+        int[] userItems = {0, 1, 1, 2, 0, 2, 0, 1, 2, 3};
+        SimilarServiceImp.Graph graph = service.invert(4, userOffsets, userItems);
+
+        assertThat(graph.itemOffsets()).containsExactly(0, 2, 4, 5, 5);
+        assertThat(graph.itemUsers()).containsExactly(0, 1, 0, 1, 1);
+        assertThat(graph.degree(0)).isEqualTo(2);
+        assertThat(graph.degree(2)).isEqualTo(1);
+        assertThat(graph.degree(3)).isZero();
+    }
+}
@@ -0,0 +1,120 @@
+package com.jagt1806.mangareader.service.imp;
+
+import com.jagt1806.mangareader.dto.manga.SuggestionDTO;
+import com.jagt1806.mangareader.model.Favorites;
+import com.jagt1806.mangareader.repository.FavoritesRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SuggestServiceImpTests {
+    private final FavoritesRepository favoritesRepository = mock(FavoritesRepository.class);
+
+    private SuggestServiceImp service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SuggestServiceImp(favoritesRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maxTitles", 1_000);
+        ReflectionTestUtils.setField(service, "maxLimit", 20);
+        ReflectionTestUtils.setField(service, "deltaMax", 1_000);
+        service.init();
+    }
+
+    @Test
+    void infixMatchesIntersectTheGramPostings() {
+        service.index("one-piece", "One Piece", List.of(), "safe");
+        service.index("piece-maker", "Piecemaker", List.of(), "safe");
+        service.index("peace", "Peace Maker", List.of(), "safe");
+        service.rebuildDeltaIfDirty();
+
+        assertThat(ids("iece")).containsExactlyInAnyOrder("one-piece", "piece-maker");
+        assertThat(ids("ace mak")).containsExactly("peace");
+    }
+
+    @Test
+    void sharedGramsOutOfOrderAreNotAMatch() {
+        // Contiene los gramas "abc" y "bcd" pero no "abcd" seguido
+        service.index("split", "abcx bcd", List.of(), "safe");
+        service.index("whole", "xabcdx", List.of(), "safe");
+        service.rebuildDeltaIfDirty();
+
+        assertThat(ids("abcd")).containsExactly("whole");
+    }
+
+    @Test
+    void repeatedGramsInATermAreIndexedOnce() {
+        service.index("aaaa", "aaaaaa", List.of(), "safe");
+        service.rebuildDeltaIfDirty();
+
+        assertThat(ids("aaaa")).containsExactly("aaaa");
+    }
+
+    @Test
+    void nsfwTitlesAreOnlySuggestedWhenAllowed() {
+        service.index("safe", "Hentai Kamen", List.of(), "suggestive");
+        service.index("adult", "Hentai Ouji", List.of(), "pornographic");
+        service.index("unknown", "Hentai Prince", List.of(), null);
+        service.rebuildDeltaIfDirty();
+
+        assertThat(ids("hentai")).containsExactly("safe");
+        assertThat(ids("hentai", true)).containsExactlyInAnyOrder("safe", "adult", "unknown");
+    }
+
+    @Test
+    void ratingLearnedLaterUpdatesAFavoriteTitle() {
+        when(favoritesRepository.findAll()).thenReturn(List.of(new Favorites(1L, "berserk", null, "Berserk", null)));
+        service.seedFavorites();
+        assertThat(ids("berserk")).isEmpty();
+
+        service.index("berserk", "Berserk", List.of(), "suggestive");
+        service.rebuildDeltaIfDirty();
+        assertThat(ids("berserk")).containsExactly("berserk");
+    }
+
+    @Test
+    void deltaAndMainSegmentsAreMergedWithoutDuplicates() {
+        when(favoritesRepository.findAll()).thenReturn(List.of(
+                new Favorites(1L, "berserk", null, "Berserk", null),
+                new Favorites(2L, "bleach", null, "Bleach", null)
+        ));
+        service.seedFavorites();
+
+        // Los favoritos no traen valoración: bleach solo aparece con nsfw
+        service.index("berserk", null, List.of("Berserk of Gluttony"), "safe");
+        service.index("blue-lock", "Blue Lock", List.of(), "safe");
+        service.rebuildDeltaIfDirty();
+
+        assertThat(ids("b", true)).containsExactlyInAnyOrder("berserk", "bleach", "blue-lock");
+        assertThat(ids("b")).containsExactlyInAnyOrder("berserk", "blue-lock");
+        assertThat(ids("glutton")).containsExactly("berserk");
+
+        service.rebuildIfChanged();
+        assertThat(ids("b", true)).containsExactlyInAnyOrder("berserk", "bleach", "blue-lock");
+        assertThat(ids("glutton")).containsExactly("berserk");
+    }
+
+    @Test
+    void alternativeTitlesAreSearchableButTheDisplayTitleIsKept() {
+        service.index("frieren", "Frieren", List.of("Sousou no Frieren"), "safe");
+        service.rebuildDeltaIfDirty();
+
+        List<SuggestionDTO> suggestions = service.suggest("sousou", 5, false).getData();
+        assertThat(suggestions).extracting(SuggestionDTO::getTitle).containsExactly("Frieren");
+    }
+
+    private List<String> ids(String query) {
+        return ids(query, false);
+    }
+
+    private List<String> ids(String query, boolean nsfw) {
+        return service.suggest(query, 10, nsfw).getData().stream().map(SuggestionDTO::getId).toList();
+    }
+}
@@ -0,0 +1,121 @@
+package com.jagt1806.mangareader.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileResponseUtilTests {
+    private static final String ETAG = "\"page\"";
+
+    private final FileResponseUtil util = new FileResponseUtil();
+
+    @TempDir
+    Path dir;
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.writeString(dir.resolve("page.jpg"), "0123456789");
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void withoutRangeTheWholeFileIsServed() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = serve(null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(10);
+        assertThat(body(response)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void aClosedRangeIsServedAsPartialContent() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = serve(null, "bytes=2-5");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PARTIAL_CONTENT);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 2-5/10");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(4);
+        assertThat(body(response)).isEqualTo("2345");
+    }
+
+    @Test
+    void openAndSuffixRangesAreResolvedAgainstTheSize() throws IOException {
+        assertThat(body(serve(null, "bytes=8-"))).isEqualTo("89");
+        assertThat(body(serve(null, "bytes=-3"))).isEqualTo("789");
+
+        ResponseEntity<StreamingResponseBody> clamped = serve(null, "bytes=5-100");
+        assertThat(clamped.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 5-9/10");
+        assertThat(body(clamped)).isEqualTo("56789");
+    }
+
+    @Test
+    void unsatisfiableOrMalformedRangesAreRejected() {
+        for(String range : new String[]{"bytes=20-30", "items=1-2", "bytes=5-2"}) {
+            ResponseEntity<StreamingResponseBody> response = serve(null, range);
+
+            assertThat(response.getStatusCode()).as(range).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE);
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */10");
+        }
+    }
+
+    @Test
+    void multipleRangesFallBackToTheWholeFile() throws IOException {
+        ResponseEntity<StreamingResponseBody> response = serve(null, "bytes=0-1,4-5");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(body(response)).isEqualTo("0123456789");
+    }
+
+    @Test
+    void aMatchingEtagIsNotModified() {
+        assertThat(serve(ETAG, "bytes=2-5").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(serve("*", null).getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void sendfileGetsTheRangeThroughRequestAttributes() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        ResponseEntity<StreamingResponseBody> response = serve(null, "bytes=2-5");
+
+        assertThat(response.getBody()).isNull();
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.filename")).isEqualTo(file.toAbsolutePath().toString());
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.start")).isEqualTo(2L);
+        // El final de sendfile es exclusivo
+        assertThat(request.getAttribute("org.apache.tomcat.sendfile.end")).isEqualTo(6L);
+    }
+
+    private ResponseEntity<StreamingResponseBody> serve(String ifNoneMatch, String range) {
+        return util.serve(file, 10, ETAG, MediaType.IMAGE_JPEG, CacheControl.noCache(), ifNoneMatch, range);
+    }
+
+    private String body(ResponseEntity<StreamingResponseBody> response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
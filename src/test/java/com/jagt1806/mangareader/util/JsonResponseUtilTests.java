@@ -0,0 +1,137 @@
+package com.jagt1806.mangareader.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonResponseUtilTests {
+    private static final CacheControl CACHE = CacheControl.noCache();
+    private static final Map<String, String> LARGE = Map.of("description", "x".repeat(200));
+
+    private final JsonResponseUtil util = new JsonResponseUtil(new ObjectMapper());
+
+    public static class Counting {
+        private final AtomicInteger reads = new AtomicInteger();
+
+        public String getValue() {
+            reads.incrementAndGet();
+            return "x";
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(util, "minCompressSize", DataSize.ofBytes(64));
+    }
+
+    @Test
+    void theEtagIsAStrongHashOfTheBody() {
+        String first = util.serveFresh(Map.of("id", "a"), CACHE, null, null).getHeaders().getETag();
+        String same = util.serveFresh(Map.of("id", "a"), CACHE, null, null).getHeaders().getETag();
+        String other = util.serveFresh(Map.of("id", "b"), CACHE, null, null).getHeaders().getETag();
+
+        assertThat(first).matches("\"[0-9a-f]{32}\"").isEqualTo(same).isNotEqualTo(other);
+    }
+
+    @Test
+    void aMatchingIfNoneMatchIsNotModified() {
+        ResponseEntity<byte[]> full = util.serveFresh(Map.of("id", "a"), CACHE, null, null);
+        String etag = full.getHeaders().getETag();
+
+        for(String ifNoneMatch : List.of(etag, "\"other\", " + etag, "*")) {
+            ResponseEntity<byte[]> response = util.serveFresh(Map.of("id", "a"), CACHE, ifNoneMatch, null);
+
+            assertThat(response.getStatusCode()).as(ifNoneMatch).isEqualTo(HttpStatus.NOT_MODIFIED);
+            assertThat(response.getBody()).isNull();
+            assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+            assertThat(response.getHeaders().getVary()).contains(HttpHeaders.ACCEPT_ENCODING);
+        }
+        assertThat(util.serveFresh(Map.of("id", "a"), CACHE, "\"other\"", null).getStatusCode()).isEqualTo(HttpStatus.OK);
+    }
+
+    @Test
+    void theBodyIsPlainJsonWithCacheHeaders() {
+        ResponseEntity<byte[]> response = util.serveFresh(Map.of("id", "a"), CACHE, null, null);
+
+        assertThat(new String(response.getBody(), StandardCharsets.UTF_8)).isEqualTo("{\"id\":\"a\"}");
+        assertThat(response.getHeaders().getCacheControl()).isEqualTo(CACHE.getHeaderValue());
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void serveRendersEachCachedInstanceOnce() {
+        Counting cached = new Counting();
+        util.serve(cached, CACHE, null, null);
+        util.serve(cached, CACHE, null, null);
+        assertThat(cached.reads).hasValue(1);
+
+        Counting fresh = new Counting();
+        util.serveFresh(fresh, CACHE, null, null);
+        util.serveFresh(fresh, CACHE, null, null);
+        assertThat(fresh.reads).hasValue(2);
+    }
+
+    @Test
+    void largeBodiesAreGzippedForClientsThatAcceptIt() throws IOException {
+        ResponseEntity<byte[]> plain = util.serveFresh(LARGE, CACHE, null, null);
+        ResponseEntity<byte[]> gzip = util.serveFresh(LARGE, CACHE, null, "br, gzip");
+
+        assertThat(gzip.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(gzip.getBody())).isEqualTo(plain.getBody());
+        // Cada codificación tiene su propio ETag y un 304 solo vale para la suya
+        assertThat(gzip.getHeaders().getETag()).isEqualTo(plain.getHeaders().getETag().replaceFirst("\"$", "-gzip\""));
+        assertThat(util.serveFresh(LARGE, CACHE, plain.getHeaders().getETag(), "gzip").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(util.serveFresh(LARGE, CACHE, gzip.getHeaders().getETag(), "gzip").getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+    }
+
+    @Test
+    void smallBodiesAreNeverCompressed() {
+        ResponseEntity<byte[]> response = util.serveFresh(Map.of("id", "a"), CACHE, null, "gzip");
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    }
+
+    @Test
+    void qualityZeroOrMalformedRefusesGzip() {
+        for(String acceptEncoding : List.of("gzip;q=0", "gzip; q=0.0", "gzip;q=abc", "deflate, br", "gzipx")) {
+            ResponseEntity<byte[]> response = util.serveFresh(LARGE, CACHE, null, acceptEncoding);
+
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isNull();
+        }
+        for(String acceptEncoding : List.of("GZIP", "deflate;q=1, gzip;q=0.5", "gzip;level=1")) {
+            ResponseEntity<byte[]> response = util.serveFresh(LARGE, CACHE, null, acceptEncoding);
+
+            assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).as(acceptEncoding).isEqualTo("gzip");
+        }
+    }
+
+    @Test
+    void theGzipVariantIsMemoizedWithTheCachedInstance() {
+        byte[] first = util.serve(LARGE, CACHE, null, "gzip").getBody();
+        byte[] second = util.serve(LARGE, CACHE, null, "gzip").getBody();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    private byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}